@@ -9,8 +9,28 @@ configure<JavaPluginConvention> {
 
 dependencies {
     testImplementation("org.junit.jupiter", "junit-jupiter-api", "5.6.0")
+    testRuntimeOnly("org.junit.jupiter", "junit-jupiter-engine", "5.6.0")
     implementation("co.aikar", "acf-core", "0.5.0-SNAPSHOT")
     implementation("org.checkerframework", "checker-qual", "3.12.0")
     compileOnly("net.kyori", "adventure-api", "4.7.0")
     compileOnly("com.sk89q.worldedit", "worldedit-core", "7.0.0")
 }
+
+configurations {
+    testImplementation {
+        extendsFrom(configurations.compileOnly.get())
+    }
+}
+
+tasks {
+    test {
+        useJUnitPlatform()
+    }
+    // Benchmarks live in the test sources, run one with -Pbenchmark=<class> -PbenchmarkArgs="<args>"
+    register<JavaExec>("benchmark") {
+        group = "verification"
+        classpath = sourceSets.test.get().runtimeClasspath
+        mainClass.set(project.findProperty("benchmark")?.toString() ?: "me.moros.gaia.io.CodecBenchmark")
+        args = project.findProperty("benchmarkArgs")?.toString()?.split(" ") ?: emptyList()
+    }
+}
@@ -24,6 +24,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 
@@ -33,10 +34,25 @@ import me.moros.gaia.api.GaiaRegion;
 import me.moros.gaia.api.GaiaVector;
 import me.moros.gaia.io.GaiaIO;
 import me.moros.gaia.platform.GaiaPlayer;
+import me.moros.gaia.util.ChunkIndex;
+import me.moros.gaia.util.RevertQueue;
 import me.moros.gaia.util.functional.GaiaConsumerInfo;
 
 public abstract class GaiaArenaManager {
   private final Map<String, Arena> ARENAS = new ConcurrentHashMap<>();
+  private final ChunkIndex<Arena> index = new ChunkIndex<>();
+  private final RevertQueue revertQueue;
+
+  protected GaiaArenaManager(final RevertQueue revertQueue) {
+    this.revertQueue = revertQueue;
+  }
+
+  /**
+   * @return the queue that reverts of all arenas share
+   */
+  public RevertQueue getRevertQueue() {
+    return revertQueue;
+  }
 
   public Arena getArena(final String name) {
     return ARENAS.get(name);
@@ -59,28 +75,56 @@ public abstract class GaiaArenaManager {
   }
 
   public void addArena(final Arena arena) {
-    if (arena != null && !ARENAS.containsKey(arena.getName())) ARENAS.put(arena.getName(), arena);
+    if (arena != null && ARENAS.putIfAbsent(arena.getName(), arena) == null) {
+      index.add(arena.getWorldUID(), arena.getRegion(), arena);
+    }
   }
 
   public boolean removeArena(final String name) {
-    ARENAS.remove(name);
+    final Arena arena = ARENAS.remove(name);
+    if (arena != null) index.remove(arena.getWorldUID(), arena.getRegion(), arena);
     return GaiaIO.getInstance().deleteArena(name); // Cleanup files
   }
 
+  /**
+   * Cancels reverting an arena. The future returned by {@link #revertArena} completes as cancelled.
+   * @param arena the arena to stop reverting
+   */
   public void cancelRevertArena(final Arena arena) {
+    arena.stopTracking(); // The arena is left partially reverted so tracked changes are no longer complete
     arena.setReverting(false);
+    revertQueue.cancel(arena.getName());
     arena.getSubRegions().forEach(GaiaChunk::cancelReverting);
   }
 
   public Optional<Arena> getArenaAtPoint(final UUID id, final GaiaVector l) {
-    return getAllArenas().stream().filter(a -> a.getWorldUID().equals(id) && a.getRegion().contains(l)).findAny();
+    return Optional.ofNullable(index.find(id, l.getX(), l.getY(), l.getZ()));
+  }
+
+  /**
+   * Records a block change for the arena that contains the specified position, if any.
+   * @param id the world uid
+   * @param x the x coordinate of the changed block
+   * @param y the y coordinate of the changed block
+   * @param z the z coordinate of the changed block
+   */
+  public void markChanged(final UUID id, final int x, final int y, final int z) {
+    if (ARENAS.isEmpty()) return;
+    final Arena arena = index.find(id, x, y, z);
+    if (arena != null) arena.markChanged(x, y, z);
   }
 
   public boolean isUniqueRegion(final UUID id, final GaiaRegion rg) {
-    return ARENAS.values().stream().filter(a -> a.getWorldUID().equals(id)).map(Arena::getRegion).noneMatch(rg::intersects);
+    return !index.intersects(id, rg);
   }
 
-  public abstract void revertArena(final Arena arena, final GaiaConsumerInfo info);
+  /**
+   * Queues an arena to be reverted through the shared revert queue.
+   * @param arena the arena to revert
+   * @param info the info of the revert operation
+   * @return a future that completes once every chunk of the arena has been reverted, cancelling it cancels the revert
+   */
+  public abstract CompletableFuture<Void> revertArena(final Arena arena, final GaiaConsumerInfo info);
 
   public abstract boolean createArena(final GaiaPlayer player, final String arenaName);
 }
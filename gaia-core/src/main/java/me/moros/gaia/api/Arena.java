@@ -21,9 +21,11 @@ package me.moros.gaia.api;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 import java.util.UUID;
 
 import me.moros.gaia.platform.GaiaWorld;
+import me.moros.gaia.util.DirtyBlockSet;
 import me.moros.gaia.util.Util;
 import me.moros.gaia.util.metadata.ArenaMetadata;
 import me.moros.gaia.util.metadata.GaiaMetadata;
@@ -33,6 +35,7 @@ import net.kyori.adventure.text.event.ClickEvent;
 import net.kyori.adventure.text.event.HoverEvent;
 import net.kyori.adventure.text.format.NamedTextColor;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class Arena implements Metadatable {
   private final String name;
@@ -46,10 +49,11 @@ public class Arena implements Metadatable {
   private boolean finalized;
 
   private ArenaMetadata meta;
+  private DirtyBlockSet changes;
 
   public Arena(@NonNull String name, @NonNull GaiaWorld world, @NonNull GaiaRegion region) {
     this.world = world;
-    this.name = name.toLowerCase();
+    this.name = name.toLowerCase(Locale.ROOT);
     this.region = region;
     info = createInfo(this);
     subRegions = new ArrayList<>();
@@ -108,6 +112,29 @@ public class Arena implements Metadatable {
     reverting = value;
   }
 
+  /**
+   * @return the positions that changed since tracking started or null if changes aren't being tracked
+   */
+  public @Nullable DirtyBlockSet getChanges() {
+    return changes;
+  }
+
+  /**
+   * Starts tracking changes from scratch, discarding any previously tracked changes.
+   * @param capacity the maximum amount of positions to track before falling back to a full revert
+   */
+  public void startTracking(int capacity) {
+    changes = new DirtyBlockSet(capacity);
+  }
+
+  public void stopTracking() {
+    changes = null;
+  }
+
+  public void markChanged(int x, int y, int z) {
+    if (changes != null) changes.add(x, y, z);
+  }
+
   public static @NonNull Component createInfo(@NonNull Arena arena) {
     final int volume = arena.getRegion().getVolume();
     final Component infoDetails = Component.text("Name: ", NamedTextColor.DARK_AQUA)
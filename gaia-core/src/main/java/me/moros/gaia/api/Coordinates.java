@@ -0,0 +1,107 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.api;
+
+/**
+ * Helpers to pack block, section and chunk coordinates into a single long so they can be stored and hashed
+ * without allocating objects.
+ * <p>Block keys hold 26 bits for x and z and 12 bits for y, which covers the world border and any build height.
+ * Section keys hold 22 bits for x and z and 20 bits for y. Chunk keys hold the full x and z values and match
+ * the keys that Paper uses for chunks.
+ */
+public final class Coordinates {
+  private static final int XZ_BITS = 26;
+  private static final int Y_BITS = 12;
+  private static final long XZ_MASK = (1L << XZ_BITS) - 1;
+  private static final long Y_MASK = (1L << Y_BITS) - 1;
+  private static final int X_SHIFT = Y_BITS + XZ_BITS;
+
+  private static final int SECTION_XZ_BITS = 22;
+  private static final int SECTION_Y_BITS = 20;
+  private static final long SECTION_XZ_MASK = (1L << SECTION_XZ_BITS) - 1;
+  private static final long SECTION_Y_MASK = (1L << SECTION_Y_BITS) - 1;
+  private static final int SECTION_X_SHIFT = SECTION_Y_BITS + SECTION_XZ_BITS;
+
+  private Coordinates() {
+  }
+
+  public static long block(int x, int y, int z) {
+    return ((x & XZ_MASK) << X_SHIFT) | ((z & XZ_MASK) << Y_BITS) | (y & Y_MASK);
+  }
+
+  public static int blockX(long key) {
+    return (int) (key >> X_SHIFT);
+  }
+
+  public static int blockY(long key) {
+    return (int) (key << (Long.SIZE - Y_BITS) >> (Long.SIZE - Y_BITS));
+  }
+
+  public static int blockZ(long key) {
+    return (int) (key << (Long.SIZE - X_SHIFT) >> (Long.SIZE - XZ_BITS));
+  }
+
+  public static long section(int sectionX, int sectionY, int sectionZ) {
+    return ((sectionX & SECTION_XZ_MASK) << SECTION_X_SHIFT) | ((sectionZ & SECTION_XZ_MASK) << SECTION_Y_BITS) | (sectionY & SECTION_Y_MASK);
+  }
+
+  /**
+   * @param x the x coordinate of a block
+   * @param y the y coordinate of a block
+   * @param z the z coordinate of a block
+   * @return the key of the 16x16x16 section that contains the block
+   */
+  public static long sectionAt(int x, int y, int z) {
+    return section(x >> 4, y >> 4, z >> 4);
+  }
+
+  public static int sectionX(long key) {
+    return (int) (key >> SECTION_X_SHIFT);
+  }
+
+  public static int sectionY(long key) {
+    return (int) (key << (Long.SIZE - SECTION_Y_BITS) >> (Long.SIZE - SECTION_Y_BITS));
+  }
+
+  public static int sectionZ(long key) {
+    return (int) (key << (Long.SIZE - SECTION_X_SHIFT) >> (Long.SIZE - SECTION_XZ_BITS));
+  }
+
+  public static long chunk(int chunkX, int chunkZ) {
+    return ((long) chunkZ << 32) | (chunkX & 0xFFFFFFFFL);
+  }
+
+  /**
+   * @param x the x coordinate of a block
+   * @param z the z coordinate of a block
+   * @return the key of the chunk that contains the block
+   */
+  public static long chunkAt(int x, int z) {
+    return chunk(x >> 4, z >> 4);
+  }
+
+  public static int chunkX(long key) {
+    return (int) key;
+  }
+
+  public static int chunkZ(long key) {
+    return (int) (key >> 32);
+  }
+}
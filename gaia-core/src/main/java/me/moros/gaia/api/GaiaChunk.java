@@ -23,7 +23,9 @@ import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+import me.moros.gaia.util.BlockCursor;
 import me.moros.gaia.util.functional.GaiaRunnableInfo;
 import me.moros.gaia.util.metadata.ChunkMetadata;
 import me.moros.gaia.util.metadata.GaiaMetadata;
@@ -44,7 +46,8 @@ public abstract class GaiaChunk implements Metadatable {
 
   private ChunkMetadata meta;
 
-  private boolean reverting;
+  private volatile CompletableFuture<Void> revertFuture;
+  private volatile boolean analysisCancelled;
 
   protected GaiaChunk(@NonNull UUID id, @NonNull Arena parent, @NonNull GaiaRegion region) {
     this.id = id;
@@ -52,7 +55,6 @@ public abstract class GaiaChunk implements Metadatable {
     chunkX = region.getMinimumPoint().getX() / 16;
     chunkZ = region.getMinimumPoint().getZ() / 16;
     chunk = region;
-    reverting = false;
     parent.addSubRegion(this);
   }
 
@@ -77,21 +79,63 @@ public abstract class GaiaChunk implements Metadatable {
   }
 
   public boolean isReverting() {
-    return reverting;
+    final CompletableFuture<Void> future = revertFuture;
+    return future != null && !future.isDone();
   }
 
-  public void startReverting() {
-    reverting = true;
+  /**
+   * Marks this chunk as reverting.
+   * @return a future that completes when the revert is finished or is cancelled through {@link #cancelReverting()}
+   */
+  public @NonNull CompletableFuture<Void> startReverting() {
+    final CompletableFuture<Void> future = new CompletableFuture<>();
+    revertFuture = future;
+    return future;
+  }
+
+  public void finishReverting() {
+    final CompletableFuture<Void> future = revertFuture;
+    if (future != null) future.complete(null);
+  }
+
+  public void failReverting(@NonNull Throwable cause) {
+    final CompletableFuture<Void> future = revertFuture;
+    if (future != null) future.completeExceptionally(cause);
   }
 
   public void cancelReverting() {
-    reverting = false;
+    final CompletableFuture<Void> future = revertFuture;
+    if (future != null) future.cancel(false);
+  }
+
+  /**
+   * @return the future of the current or last revert, or a completed future if this chunk was never reverted
+   */
+  public @NonNull CompletableFuture<Void> getRevertFuture() {
+    final CompletableFuture<Void> future = revertFuture;
+    return future == null ? CompletableFuture.completedFuture(null) : future;
+  }
+
+  /**
+   * Cancels analyzing this chunk. Blocks that are still being read are discarded instead of saved.
+   */
+  public void cancelAnalysis() {
+    analysisCancelled = true;
+  }
+
+  public boolean isAnalysisCancelled() {
+    return analysisCancelled;
   }
 
   public boolean isAnalyzed() {
     return meta != null && meta.hash != null && !meta.hash.isEmpty();
   }
 
+  /**
+   * Iterates the relative position of every block in this chunk. This allocates a vector per block,
+   * prefer {@link #cursor()} for bulk work.
+   * @return a new iterator
+   */
   public Iterator<GaiaVector> iterator() {
     return new Iterator<GaiaVector>() {
       private final GaiaVector max = chunk.getVector();
@@ -122,6 +166,13 @@ public abstract class GaiaChunk implements Metadatable {
     };
   }
 
+  /**
+   * @return a new cursor over the blocks of this chunk in the order of {@link GaiaData}
+   */
+  public @NonNull BlockCursor cursor() {
+    return new BlockCursor(chunk.getVector());
+  }
+
   @Override
   public GaiaMetadata getMetadata() {
     return meta;
@@ -134,19 +185,20 @@ public abstract class GaiaChunk implements Metadatable {
 
   /**
    * Attempts to load the chunk and analyze blocks based on passed info.
-   * It will analyze up to a maximum amount of blocks per tick as defined in passed info.
-   * If there are more blocks left to analyze it will continue in the next tick.
+   * Blocks are read in bulk through {@link me.moros.gaia.platform.GaiaWorld#readBlocks} and saved asynchronously.
    * @param info the object containing the info
    * @param data the object containing the data
+   * @return a future that completes once the data has been saved
    */
-  public abstract void analyze(@NonNull GaiaRunnableInfo info, @NonNull GaiaData data);
+  public abstract @NonNull CompletableFuture<Void> analyze(@NonNull GaiaRunnableInfo info, @NonNull GaiaData data);
 
   /**
    * Attempts to load the chunk and revert blocks based on passed info.
-   * It will revert up to a maximum amount of blocks per tick as defined in passed info.
-   * If there are more blocks left to revert it will continue in the next tick.
+   * The work is spread across ticks by the platform's scheduler according to its time budget per tick.
+   * The chunk must have been marked as reverting through {@link #startReverting()}.
    * @param info the object containing the info
    * @param data the object containing the data
+   * @return the revert future of this chunk
    */
-  public abstract void revert(@NonNull GaiaRunnableInfo info, @NonNull GaiaData data);
+  public abstract @NonNull CompletableFuture<Void> revert(@NonNull GaiaRunnableInfo info, @NonNull GaiaData data);
 }
@@ -19,24 +19,83 @@
 
 package me.moros.gaia.api;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
 import me.moros.gaia.platform.GaiaBlockData;
+import me.moros.gaia.util.BitStorage;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
+/**
+ * Block data for a cuboid, stored as palette indices packed in a {@link BitStorage}.
+ * Blocks are indexed in y, z, x order which matches the order they are serialized in.
+ * Layers are grouped into sections of {@link #SECTION_HEIGHT} so each section covers a contiguous range of indices.
+ * Sections can be aligned to world sections with {@link #alignSections(int)}, in which case the first and last
+ * sections may cover fewer layers.
+ */
 public final class GaiaData {
-  private final GaiaBlockData[][][] data;
+  public static final int SECTION_HEIGHT = 16;
+
   private final GaiaVector size;
+  private final int width, length, volume;
+  private final List<GaiaBlockData> palette;
+  private final Map<GaiaBlockData, Integer> paletteIds;
+  private BitStorage storage;
+  private int sectionOffset;
 
   public GaiaData(@NonNull GaiaVector size) {
-    this.data = new GaiaBlockData[size.getX()][size.getY()][size.getZ()];
+    this(size, Collections.emptyList());
+  }
+
+  public GaiaData(@NonNull GaiaVector size, @NonNull List<@NonNull GaiaBlockData> palette) {
+    this(size, palette, null);
+  }
+
+  /**
+   * Create a new instance backed by existing palette indices.
+   * The storage must use the minimum amount of bits required for the palette.
+   * @param size the dimensions of the data
+   * @param palette the palette entries
+   * @param storage the palette indices or null to start with all indices set to 0
+   */
+  public GaiaData(@NonNull GaiaVector size, @NonNull List<@NonNull GaiaBlockData> palette, @Nullable BitStorage storage) {
     this.size = size;
+    width = size.getX();
+    length = size.getZ();
+    volume = size.getLength();
+    this.palette = new ArrayList<>(palette);
+    paletteIds = new HashMap<>();
+    for (int i = 0; i < this.palette.size(); i++) {
+      paletteIds.putIfAbsent(this.palette.get(i), i);
+    }
+    int bits = BitStorage.bitsFor(this.palette.size());
+    if (storage == null) {
+      this.storage = new BitStorage(bits, volume);
+    } else {
+      if (storage.getBits() != bits || storage.getSize() != volume) {
+        throw new IllegalArgumentException("Storage does not match palette or dimensions");
+      }
+      this.storage = storage;
+    }
   }
 
-  public @NonNull GaiaBlockData getDataAt(@NonNull GaiaVector v) {
+  public int index(int x, int y, int z) {
+    return (y * length + z) * width + x;
+  }
+
+  public @Nullable GaiaBlockData getDataAt(@NonNull GaiaVector v) {
     return getDataAt(v.getX(), v.getY(), v.getZ());
   }
 
-  public @NonNull GaiaBlockData getDataAt(int x, int y, int z) {
-    return data[x][y][z];
+  /**
+   * @return the block data at the specified position or null if no block data has been set yet
+   */
+  public @Nullable GaiaBlockData getDataAt(int x, int y, int z) {
+    return palette.isEmpty() ? null : palette.get(storage.get(index(x, y, z)));
   }
 
   public void setDataAt(@NonNull GaiaVector v, @NonNull GaiaBlockData gaiaBlockData) {
@@ -44,7 +103,120 @@ public final class GaiaData {
   }
 
   public void setDataAt(int x, int y, int z, @NonNull GaiaBlockData gaiaBlockData) {
-    data[x][y][z] = gaiaBlockData;
+    int id = getOrCreatePaletteId(gaiaBlockData); // May resize storage so it must be resolved first
+    storage.set(index(x, y, z), id);
+  }
+
+  public int getPaletteId(int index) {
+    return storage.get(index);
+  }
+
+  /**
+   * Sets the palette index for the block at the specified position.
+   * The caller is responsible for passing an index that exists in this object's palette.
+   * @param index the block index as calculated by {@link #index(int, int, int)}
+   * @param id the palette index
+   */
+  public void setPaletteId(int index, int id) {
+    storage.set(index, id);
+  }
+
+  /**
+   * Aligns sections to the sections of the world so each section maps to exactly one world section.
+   * @param y the world height of the lowest layer of this data
+   */
+  public void alignSections(int y) {
+    sectionOffset = y & (SECTION_HEIGHT - 1);
+  }
+
+  /**
+   * @return the amount of layers between the bottom of the first section and the lowest layer of this data
+   */
+  public int getSectionOffset() {
+    return sectionOffset;
+  }
+
+  public int getSectionCount() {
+    return (sectionOffset + size.getY() + SECTION_HEIGHT - 1) / SECTION_HEIGHT;
+  }
+
+  /**
+   * @param section the section index
+   * @return the first layer of the specified section or the height of the data if the section is past the top
+   */
+  public int getSectionLayer(int section) {
+    return Math.max(0, Math.min(size.getY(), section * SECTION_HEIGHT - sectionOffset));
+  }
+
+  /**
+   * @param section the section index
+   * @return the index of the first block in the specified section
+   */
+  public int getSectionStart(int section) {
+    return getSectionLayer(section) * width * length;
+  }
+
+  /**
+   * @param section the section index
+   * @return the index after the last block in the specified section
+   */
+  public int getSectionEnd(int section) {
+    return getSectionStart(section + 1);
+  }
+
+  /**
+   * Checks if every block in a section shares the same palette index.
+   * @param section the section index
+   * @return the palette index shared by every block in the section or -1 if the section is mixed
+   */
+  public int getUniformPaletteId(int section) {
+    int start = getSectionStart(section);
+    int end = getSectionEnd(section);
+    int id = storage.get(start);
+    for (int i = start + 1; i < end; i++) {
+      if (storage.get(i) != id) return -1;
+    }
+    return id;
+  }
+
+  /**
+   * Sets the palette index for every block in a section.
+   * The caller is responsible for passing an index that exists in this object's palette.
+   * @param section the section index
+   * @param id the palette index
+   */
+  public void fillSection(int section, int id) {
+    int end = getSectionEnd(section);
+    for (int i = getSectionStart(section); i < end; i++) {
+      storage.set(i, id);
+    }
+  }
+
+  public int getOrCreatePaletteId(@NonNull GaiaBlockData gaiaBlockData) {
+    Integer id = paletteIds.get(gaiaBlockData);
+    if (id != null) return id;
+    int newId = palette.size();
+    palette.add(gaiaBlockData);
+    paletteIds.put(gaiaBlockData, newId);
+    int bits = BitStorage.bitsFor(palette.size());
+    if (bits != storage.getBits()) storage = storage.resize(bits);
+    return newId;
+  }
+
+  public @NonNull GaiaBlockData getPaletteEntry(int id) {
+    return palette.get(id);
+  }
+
+  public @NonNull List<@NonNull GaiaBlockData> getPalette() {
+    return Collections.unmodifiableList(palette);
+  }
+
+  public @NonNull BitStorage getStorage() {
+    return storage;
+  }
+
+  public int getVolume() {
+    return volume;
   }
 
   public @NonNull GaiaVector getVector() {
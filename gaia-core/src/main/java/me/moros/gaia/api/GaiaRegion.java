@@ -74,6 +74,11 @@ public final class GaiaRegion {
     return vector.containedWithin(getMinimumPoint(), getMaximumPoint());
   }
 
+  public boolean contains(int x, int y, int z) {
+    return x >= minPoint.getX() && x <= maxPoint.getX() && y >= minPoint.getY() && y <= maxPoint.getY()
+      && z >= minPoint.getZ() && z <= maxPoint.getZ();
+  }
+
   public boolean intersects(@NonNull GaiaRegion region) {
     return (getMinimumPoint().getX() <= region.getMaximumPoint().getX() && getMaximumPoint().getX() >= region.getMinimumPoint().getX()) &&
       (getMinimumPoint().getY() <= region.getMaximumPoint().getY() && getMaximumPoint().getY() >= region.getMinimumPoint().getY()) &&
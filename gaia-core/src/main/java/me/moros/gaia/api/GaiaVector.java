@@ -47,6 +47,15 @@ public final class GaiaVector {
     return new GaiaVector(x, y, z);
   }
 
+  /**
+   * The inverse of {@link #toBlockKey()}.
+   * @param key the packed block coordinates
+   * @return the vector
+   */
+  public static @NonNull GaiaVector fromBlockKey(long key) {
+    return at(Coordinates.blockX(key), Coordinates.blockY(key), Coordinates.blockZ(key));
+  }
+
   public static @NonNull GaiaVector atXZClamped(int x, int y, int z, int minX, int maxX, int minZ, int maxZ) {
     if (minX > maxX || minZ > maxZ) throw new IllegalArgumentException("Minimum cannot be greater than maximum");
     return at(Math.max(minX, Math.min(maxX, x)), y, Math.max(minZ, Math.min(maxZ, z)));
@@ -98,6 +107,13 @@ public final class GaiaVector {
     return GaiaVector.at(x / n, y / n, z / n);
   }
 
+  /**
+   * @return the coordinates of this vector packed with {@link Coordinates#block(int, int, int)}
+   */
+  public long toBlockKey() {
+    return Coordinates.block(x, y, z);
+  }
+
   public boolean containedWithin(@NonNull GaiaVector min, @NonNull GaiaVector max) {
     return x >= min.x && x <= max.x && y >= min.y && y <= max.y && z >= min.z && z <= max.z;
   }
@@ -137,6 +153,11 @@ public final class GaiaVector {
     return other.x == this.x && other.y == this.y && other.z == this.z;
   }
 
+  @Override
+  public int hashCode() {
+    return (x * 31 + y) * 31 + z;
+  }
+
   @Override
   public String toString() {
     return x + " " + y + " " + z;
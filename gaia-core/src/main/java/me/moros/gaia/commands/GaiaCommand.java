@@ -20,6 +20,7 @@
 package me.moros.gaia.commands;
 
 import java.util.Comparator;
+import java.util.List;
 
 import co.aikar.commands.BaseCommand;
 import co.aikar.commands.CommandHelp;
@@ -36,9 +37,11 @@ import co.aikar.commands.annotation.Optional;
 import co.aikar.commands.annotation.Subcommand;
 import me.moros.gaia.GaiaPlugin;
 import me.moros.gaia.api.Arena;
+import me.moros.gaia.io.GaiaIO;
 import me.moros.gaia.locale.Message;
 import me.moros.gaia.platform.GaiaPlayer;
 import me.moros.gaia.platform.GaiaUser;
+import me.moros.gaia.util.RevertQueue;
 import me.moros.gaia.util.Util;
 import me.moros.gaia.util.functional.GaiaConsumerInfo;
 import net.kyori.adventure.text.Component;
@@ -173,6 +176,47 @@ public class GaiaCommand extends BaseCommand {
     }
   }
 
+  @Subcommand("queue|q")
+  @CommandPermission("gaia.command.queue")
+  @Description("View the arenas that are being reverted or waiting to be reverted")
+  public static void onQueue(GaiaUser user) {
+    RevertQueue queue = plugin.getArenaManager().getRevertQueue();
+    List<RevertQueue.Entry> entries = queue.getEntries();
+    if (entries.isEmpty()) {
+      Message.QUEUE_EMPTY.send(user);
+      return;
+    }
+    double throughput = queue.getThroughput();
+    Message.QUEUE_HEADER.send(user, throughput == 0 ? "?" : String.valueOf(Math.round(throughput * 1000)));
+    for (RevertQueue.Entry entry : entries) {
+      String eta = entry.getEta() < 0 ? "?" : (entry.getEta() + 999) / 1000 + "s";
+      if (entry.isRunning()) {
+        Message.QUEUE_RUNNING.send(user, entry.getName(), eta);
+      } else {
+        Message.QUEUE_ENTRY.send(user, String.valueOf(entry.getPosition()), entry.getName(), eta);
+      }
+    }
+  }
+
+  @Subcommand("verify|check")
+  @CommandPermission("gaia.command.verify")
+  @CommandCompletion("@arenas")
+  @Description("Verify the stored data of the specified arena, ignoring cached verification results")
+  public static void onVerify(GaiaUser user, Arena arena) {
+    if (!arena.isFinalized()) {
+      Message.REVERT_ERROR_ANALYZING.send(user, arena.getFormattedName());
+      return;
+    }
+    Message.VERIFY_START.send(user, arena.getFormattedName());
+    GaiaIO.getInstance().verifyArena(arena).thenAccept(failed -> {
+      if (failed == 0) {
+        Message.VERIFY_SUCCESS.send(user, arena.getFormattedName());
+      } else {
+        Message.VERIFY_FAIL.send(user, arena.getFormattedName(), String.valueOf(failed));
+      }
+    });
+  }
+
   private static Component generatePaging(boolean forward, int page) {
     return Component.text(forward ? " >>>" : "<<< ", NamedTextColor.GOLD)
       .hoverEvent(HoverEvent.showText(Component.text("Click to navigate to page " + page, NamedTextColor.GRAY)))
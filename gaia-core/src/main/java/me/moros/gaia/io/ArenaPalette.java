@@ -0,0 +1,96 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import me.moros.gaia.GaiaPlugin;
+import me.moros.gaia.platform.GaiaBlockData;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * The block states of an arena, stored once in its metadata and referenced by index from every chunk file.
+ * Entries are resolved into block data at most once for as long as no new states are added.
+ */
+public final class ArenaPalette {
+  private final List<String> states;
+  private final Map<String, Integer> ids;
+  private GaiaBlockData[] resolved;
+
+  public ArenaPalette() {
+    this(List.of());
+  }
+
+  /**
+   * Create a new palette with existing states.
+   * @param states the states in the order they are referenced
+   */
+  public ArenaPalette(@NonNull List<@NonNull String> states) {
+    this.states = new ArrayList<>(states);
+    ids = new HashMap<>();
+    for (int i = 0; i < this.states.size(); i++) {
+      ids.putIfAbsent(this.states.get(i), i);
+    }
+  }
+
+  /**
+   * @param state the serialized block state
+   * @return the index of the state, adding it to the palette if needed
+   */
+  public synchronized int getOrCreateId(@NonNull String state) {
+    Integer id = ids.get(state);
+    if (id != null) return id;
+    int newId = states.size();
+    states.add(state);
+    ids.put(state, newId);
+    resolved = null;
+    return newId;
+  }
+
+  public synchronized int size() {
+    return states.size();
+  }
+
+  /**
+   * @return a copy of all states in the order they are referenced
+   */
+  public synchronized @NonNull List<@NonNull String> getStates() {
+    return new ArrayList<>(states);
+  }
+
+  /**
+   * Resolves every state into block data, reusing the result of previous calls.
+   * @param platform the platform to resolve states with
+   * @return the resolved block data, indexed like the states
+   */
+  public synchronized @NonNull GaiaBlockData[] resolve(@NonNull GaiaPlugin platform) {
+    if (resolved == null) {
+      GaiaBlockData[] result = new GaiaBlockData[states.size()];
+      for (int i = 0; i < result.length; i++) {
+        result[i] = platform.getBlockDataFromString(states.get(i));
+      }
+      resolved = result;
+    }
+    return resolved;
+  }
+}
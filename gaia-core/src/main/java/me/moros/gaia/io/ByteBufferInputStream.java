@@ -0,0 +1,62 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An input stream that reads the remaining bytes of a buffer without copying it.
+ */
+final class ByteBufferInputStream extends InputStream {
+  private final ByteBuffer buffer;
+
+  ByteBufferInputStream(@NonNull ByteBuffer buffer) {
+    this.buffer = buffer;
+  }
+
+  @Override
+  public int read() {
+    return buffer.hasRemaining() ? buffer.get() & 0xFF : -1;
+  }
+
+  @Override
+  public int read(byte @NonNull [] b, int off, int len) {
+    if (len == 0) return 0;
+    if (!buffer.hasRemaining()) return -1;
+    int amount = Math.min(len, buffer.remaining());
+    buffer.get(b, off, amount);
+    return amount;
+  }
+
+  @Override
+  public long skip(long n) {
+    int amount = (int) Math.max(0, Math.min(n, buffer.remaining()));
+    buffer.position(buffer.position() + amount);
+    return amount;
+  }
+
+  @Override
+  public int available() {
+    return buffer.remaining();
+  }
+}
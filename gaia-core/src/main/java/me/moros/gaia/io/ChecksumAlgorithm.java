@@ -0,0 +1,130 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+import java.util.zip.CRC32C;
+import java.util.zip.Checksum;
+
+import me.moros.gaia.util.Util;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The algorithms that can be used to checksum arena data.
+ * The algorithm used for each chunk is recorded in its metadata, chunks without one use {@link #LEGACY}.
+ */
+public enum ChecksumAlgorithm {
+  MD5(32) {
+    @Override
+    public @NonNull Hasher create() {
+      final MessageDigest md;
+      try {
+        md = MessageDigest.getInstance("MD5");
+      } catch (NoSuchAlgorithmException e) {
+        throw new IllegalStateException(e); // Every java platform is required to support MD5
+      }
+      return new Hasher() {
+        @Override
+        public void update(byte @NonNull [] b, int off, int len) {
+          md.update(b, off, len);
+        }
+
+        @Override
+        public @NonNull String getValue() {
+          return Util.toHex(md.digest());
+        }
+      };
+    }
+  },
+  CRC32C(8) {
+    @Override
+    public @NonNull Hasher create() {
+      return new ChecksumHasher(new CRC32C());
+    }
+  };
+
+  public static final ChecksumAlgorithm LEGACY = MD5;
+
+  private final int length;
+
+  ChecksumAlgorithm(int length) {
+    this.length = length;
+  }
+
+  /**
+   * @return a new hasher for this algorithm
+   */
+  public abstract @NonNull Hasher create();
+
+  public boolean isValidHash(@Nullable String hash) {
+    if (hash == null || hash.length() != length) return false;
+    for (int i = 0; i < length; i++) {
+      if (Character.digit(hash.charAt(i), 16) < 0) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Find the algorithm with the specified name.
+   * @param name the name of the algorithm, a null value refers to the legacy algorithm
+   * @return the algorithm or null if there is no algorithm with that name
+   */
+  public static @Nullable ChecksumAlgorithm fromName(@Nullable String name) {
+    if (name == null) return LEGACY;
+    try {
+      return valueOf(name.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+
+  /**
+   * An incremental hash computation.
+   */
+  public interface Hasher {
+    void update(byte @NonNull [] b, int off, int len);
+
+    /**
+     * @return the hex encoded value of all data passed so far
+     */
+    @NonNull String getValue();
+  }
+
+  private static final class ChecksumHasher implements Hasher {
+    private final Checksum checksum;
+
+    private ChecksumHasher(Checksum checksum) {
+      this.checksum = checksum;
+    }
+
+    @Override
+    public void update(byte @NonNull [] b, int off, int len) {
+      checksum.update(b, off, len);
+    }
+
+    @Override
+    public @NonNull String getValue() {
+      return String.format("%08x", checksum.getValue());
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An input stream that hashes every byte read through it so data can be verified while it's being decoded.
+ */
+final class ChecksumInputStream extends FilterInputStream {
+  private final ChecksumAlgorithm.Hasher hasher;
+  private final byte[] single = new byte[1];
+
+  ChecksumInputStream(@NonNull InputStream in, ChecksumAlgorithm.@NonNull Hasher hasher) {
+    super(in);
+    this.hasher = hasher;
+  }
+
+  @Override
+  public int read() throws IOException {
+    int b = in.read();
+    if (b >= 0) {
+      single[0] = (byte) b;
+      hasher.update(single, 0, 1);
+    }
+    return b;
+  }
+
+  @Override
+  public int read(byte @NonNull [] b, int off, int len) throws IOException {
+    int amount = in.read(b, off, len);
+    if (amount > 0) hasher.update(b, off, amount);
+    return amount;
+  }
+
+  @Override
+  public long skip(long n) throws IOException {
+    // Skipped bytes still need to be hashed
+    byte[] buffer = new byte[(int) Math.min(Math.max(n, 0), 8192)];
+    long remaining = n;
+    while (remaining > 0) {
+      int amount = read(buffer, 0, (int) Math.min(remaining, buffer.length));
+      if (amount < 0) break;
+      remaining -= amount;
+    }
+    return n - Math.max(remaining, 0);
+  }
+
+  @Override
+  public boolean markSupported() {
+    return false;
+  }
+
+  /**
+   * Reads any remaining bytes and provides the checksum of the whole stream.
+   * @return the hex encoded checksum
+   */
+  @NonNull String finish() throws IOException {
+    byte[] buffer = new byte[8192];
+    while (read(buffer, 0, buffer.length) >= 0) {
+      // Drain the stream
+    }
+    return hasher.getValue();
+  }
+}
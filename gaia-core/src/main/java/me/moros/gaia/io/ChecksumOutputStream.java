@@ -0,0 +1,59 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * An output stream that hashes every byte written through it.
+ */
+final class ChecksumOutputStream extends FilterOutputStream {
+  private final ChecksumAlgorithm.Hasher hasher;
+  private final byte[] single = new byte[1];
+
+  ChecksumOutputStream(@NonNull OutputStream out, ChecksumAlgorithm.@NonNull Hasher hasher) {
+    super(out);
+    this.hasher = hasher;
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    out.write(b);
+    single[0] = (byte) b;
+    hasher.update(single, 0, 1);
+  }
+
+  @Override
+  public void write(byte @NonNull [] b, int off, int len) throws IOException {
+    out.write(b, off, len);
+    hasher.update(b, off, len);
+  }
+
+  /**
+   * @return the hex encoded checksum of all bytes written so far
+   */
+  @NonNull String getChecksum() {
+    return hasher.getValue();
+  }
+}
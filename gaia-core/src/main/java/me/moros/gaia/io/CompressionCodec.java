@@ -0,0 +1,134 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.InflaterInputStream;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * The codecs that can be used to compress arena data.
+ * The codec used for each arena is recorded in its metadata, arenas without one use {@link #LEGACY}.
+ * Levels only affect compression so they don't need to be known when reading data.
+ */
+public enum CompressionCodec {
+  NONE {
+    @Override
+    public @NonNull OutputStream compress(@NonNull OutputStream out, int level) {
+      return out;
+    }
+
+    @Override
+    public @NonNull InputStream decompress(@NonNull InputStream in) {
+      return in;
+    }
+  },
+  GZIP {
+    @Override
+    public @NonNull OutputStream compress(@NonNull OutputStream out, int level) throws IOException {
+      return new GZIPOutputStream(out) {
+        {
+          def.setLevel(level);
+        }
+      };
+    }
+
+    @Override
+    public @NonNull InputStream decompress(@NonNull InputStream in) throws IOException {
+      return new GZIPInputStream(in);
+    }
+  },
+  DEFLATE {
+    @Override
+    public @NonNull OutputStream compress(@NonNull OutputStream out, int level) {
+      return new DeflaterOutputStream(out, new Deflater(level)) {
+        @Override
+        public void close() throws IOException {
+          try {
+            super.close();
+          } finally {
+            def.end(); // Only the default deflater is released by the stream itself
+          }
+        }
+      };
+    }
+
+    @Override
+    public @NonNull InputStream decompress(@NonNull InputStream in) {
+      return new InflaterInputStream(in);
+    }
+  },
+  LZ {
+    @Override
+    public @NonNull OutputStream compress(@NonNull OutputStream out, int level) {
+      return new LzCodec.Output(out);
+    }
+
+    @Override
+    public @NonNull InputStream decompress(@NonNull InputStream in) {
+      return new LzCodec.Input(in);
+    }
+  };
+
+  public static final CompressionCodec LEGACY = GZIP;
+  public static final int DEFAULT_LEVEL = Deflater.DEFAULT_COMPRESSION;
+
+  /**
+   * Wraps a stream so data written to it is compressed. Closing the returned stream closes the passed stream.
+   * @param out the stream to write compressed data to
+   * @param level the compression level from 0 to 9 or {@link #DEFAULT_LEVEL}, ignored by codecs without levels
+   * @return the compressing stream
+   */
+  public abstract @NonNull OutputStream compress(@NonNull OutputStream out, int level) throws IOException;
+
+  /**
+   * Wraps a stream so data read from it is decompressed. Closing the returned stream closes the passed stream.
+   * @param in the stream to read compressed data from
+   * @return the decompressing stream
+   */
+  public abstract @NonNull InputStream decompress(@NonNull InputStream in) throws IOException;
+
+  public static boolean isValidLevel(int level) {
+    return level == DEFAULT_LEVEL || (level >= Deflater.NO_COMPRESSION && level <= Deflater.BEST_COMPRESSION);
+  }
+
+  /**
+   * Find the codec with the specified name.
+   * @param name the name of the codec, a null value refers to the legacy codec
+   * @return the codec or null if there is no codec with that name
+   */
+  public static @Nullable CompressionCodec fromName(@Nullable String name) {
+    if (name == null) return LEGACY;
+    try {
+      return valueOf(name.toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      return null;
+    }
+  }
+}
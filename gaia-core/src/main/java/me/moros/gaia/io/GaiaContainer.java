@@ -0,0 +1,171 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A single file that stores the data of every chunk in an arena.
+ * The header indexes each chunk by its id followed by the offset and length of its data.
+ * Chunk data is stored exactly as it would be in a standalone file so existing checksums remain valid.
+ * The file is memory-mapped so chunks can be read without holding a file descriptor open.
+ */
+public final class GaiaContainer {
+  public static final String SUFFIX = ".gaiac";
+
+  private static final int MAGIC = 0x47414941; // GAIA
+  private static final int FORMAT = 1;
+  private static final int HEADER_SIZE = 12;
+  private static final int ENTRY_SIZE = 28;
+
+  private volatile MappedByteBuffer buffer;
+  private final Map<UUID, Entry> entries;
+
+  private GaiaContainer(MappedByteBuffer buffer, Map<UUID, Entry> entries) {
+    this.buffer = buffer;
+    this.entries = entries;
+  }
+
+  public boolean contains(@NonNull UUID id) {
+    return entries.containsKey(id);
+  }
+
+  public @NonNull Set<@NonNull UUID> getIds() {
+    return Collections.unmodifiableSet(entries.keySet());
+  }
+
+  /**
+   * Provides a view of the mapped data for the specified chunk.
+   * @param id the chunk id
+   * @return a new buffer that shares the mapped content or null if the chunk isn't stored in this container
+   * or the container has been closed
+   */
+  public @Nullable ByteBuffer slice(@NonNull UUID id) {
+    MappedByteBuffer current = buffer;
+    Entry entry = entries.get(id);
+    if (current == null || entry == null) return null;
+    ByteBuffer view = current.duplicate();
+    view.position((int) entry.offset).limit((int) (entry.offset + entry.length));
+    return view.slice();
+  }
+
+  /**
+   * Releases this container's reference to the mapped file, no further slices can be taken afterwards.
+   * Java can't safely unmap a buffer while views of it may still be read on other threads, so the mapping
+   * itself is released once the last outstanding slice has been garbage collected.
+   */
+  public void close() {
+    buffer = null;
+  }
+
+  public boolean isClosed() {
+    return buffer == null;
+  }
+
+  public static @NonNull GaiaContainer open(@NonNull Path path) throws IOException {
+    final MappedByteBuffer buffer;
+    try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size > Integer.MAX_VALUE) throw new IOException("Container is too large: " + path);
+      buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size); // The mapping stays valid after closing the channel
+    }
+    if (buffer.remaining() < HEADER_SIZE || buffer.getInt() != MAGIC) {
+      throw new IOException("Invalid container header: " + path);
+    }
+    int format = buffer.getInt();
+    if (format != FORMAT) throw new IOException("Unsupported container format " + format + ": " + path);
+    int count = buffer.getInt();
+    if (count < 0 || buffer.remaining() < (long) count * ENTRY_SIZE) {
+      throw new IOException("Invalid container index: " + path);
+    }
+    Map<UUID, Entry> entries = new HashMap<>(count);
+    for (int i = 0; i < count; i++) {
+      UUID id = new UUID(buffer.getLong(), buffer.getLong());
+      long offset = buffer.getLong();
+      int length = buffer.getInt();
+      if (offset < 0 || length < 0 || offset + length > buffer.capacity()) {
+        throw new IOException("Invalid container entry " + id + ": " + path);
+      }
+      entries.put(id, new Entry(offset, length));
+    }
+    return new GaiaContainer(buffer, entries);
+  }
+
+  /**
+   * Writes all passed chunk files into a single container.
+   * The container is written to a temporary file first and moved in place once complete.
+   * @param target the container file
+   * @param files the chunk data files mapped by chunk id
+   */
+  public static void pack(@NonNull Path target, @NonNull Map<@NonNull UUID, @NonNull Path> files) throws IOException {
+    Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+    long offset = HEADER_SIZE + (long) files.size() * ENTRY_SIZE;
+    try (OutputStream os = Files.newOutputStream(temp);
+         DataOutputStream out = new DataOutputStream(new BufferedOutputStream(os))) {
+      out.writeInt(MAGIC);
+      out.writeInt(FORMAT);
+      out.writeInt(files.size());
+      for (Map.Entry<UUID, Path> entry : files.entrySet()) {
+        long length = Files.size(entry.getValue());
+        if (offset + length > Integer.MAX_VALUE) throw new IOException("Arena is too large for a single container");
+        out.writeLong(entry.getKey().getMostSignificantBits());
+        out.writeLong(entry.getKey().getLeastSignificantBits());
+        out.writeLong(offset);
+        out.writeInt((int) length);
+        offset += length;
+      }
+      for (Path file : files.values()) {
+        Files.copy(file, out);
+      }
+    } catch (IOException e) {
+      Files.deleteIfExists(temp);
+      throw e;
+    }
+    Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+  }
+
+  private static final class Entry {
+    private final long offset;
+    private final int length;
+
+    private Entry(long offset, int length) {
+      this.offset = offset;
+      this.length = length;
+    }
+  }
+}
@@ -21,25 +21,36 @@ package me.moros.gaia.io;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.io.OutputStreamWriter;
+import java.nio.ByteBuffer;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.security.DigestOutputStream;
-import java.security.MessageDigest;
-import java.security.NoSuchAlgorithmException;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import com.google.gson.Gson;
 import com.google.gson.GsonBuilder;
+import com.google.gson.JsonParseException;
 import com.google.gson.stream.JsonReader;
 import com.sk89q.jnbt.NBTInputStream;
 import com.sk89q.jnbt.NBTOutputStream;
@@ -50,39 +61,47 @@ import me.moros.gaia.api.GaiaChunk;
 import me.moros.gaia.api.GaiaData;
 import me.moros.gaia.api.GaiaRegion;
 import me.moros.gaia.api.GaiaVector;
+import me.moros.gaia.platform.GaiaBlockData;
 import me.moros.gaia.platform.GaiaWorld;
-import me.moros.gaia.util.Util;
 import me.moros.gaia.util.metadata.ArenaMetadata;
 import me.moros.gaia.util.metadata.ChunkMetadata;
 import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public final class GaiaIO {
-  public static final String ALGORITHM = "MD5";
-
   public static final String ARENA_SUFFIX = ".json";
   public static final String DATA_SUFFIX = ".gaia";
+  public static final String VERIFICATION_FILE = "verification.cache";
 
   private static GaiaIO IO;
 
   private final GaiaPlugin plugin;
   private final Path arenaDir;
   private final boolean debug;
+  private final StorageOptions options;
   private final Gson gson;
+  private final Map<String, GaiaContainer> containers = new ConcurrentHashMap<>();
+  private final Map<String, ArenaPalette> palettes = new ConcurrentHashMap<>();
+  private final Map<String, CompressionCodec> codecs = new ConcurrentHashMap<>();
+  private final VerificationCache verificationCache;
+  private final SnapshotCache snapshotCache;
 
-  private GaiaIO(GaiaPlugin plugin, Path arenaDir, boolean debug) {
+  private GaiaIO(GaiaPlugin plugin, Path arenaDir, boolean debug, StorageOptions options) {
     this.plugin = plugin;
     this.arenaDir = arenaDir;
     this.debug = debug;
+    this.options = options;
     gson = new GsonBuilder().setPrettyPrinting().registerTypeAdapter(GaiaVector.class, new GaiaAdapter()).create();
+    verificationCache = new VerificationCache(Paths.get(arenaDir.toString(), VERIFICATION_FILE), gson);
+    snapshotCache = new SnapshotCache(options.cacheBudget, options.cacheMode, options.arenaCacheModes);
   }
 
-  public static boolean createInstance(@NonNull GaiaPlugin plugin, @NonNull String parentDirectory, boolean debug) {
+  public static boolean createInstance(@NonNull GaiaPlugin plugin, @NonNull String parentDirectory, boolean debug, @NonNull StorageOptions options) {
     if (IO != null) return false;
     try {
       Path arenaDir = Paths.get(parentDirectory, "Arenas");
       Files.createDirectories(arenaDir);
-      IO = new GaiaIO(plugin, arenaDir, debug);
+      IO = new GaiaIO(plugin, arenaDir, debug, options);
     } catch (IOException e) {
       e.printStackTrace();
       return false;
@@ -94,6 +113,10 @@ public final class GaiaIO {
     return IO;
   }
 
+  public @NonNull SnapshotCache getSnapshotCache() {
+    return snapshotCache;
+  }
+
   public boolean arenaFileExists(@NonNull String name) {
     Path file = Paths.get(arenaDir.toString(), name + ARENA_SUFFIX);
     return Files.exists(file);
@@ -116,8 +139,16 @@ public final class GaiaIO {
     Path file = Paths.get(arenaDir.toString(), name + ARENA_SUFFIX);
     Path directory = Paths.get(arenaDir.toString(), name);
     try {
-      Files.walk(directory, 1).filter(IO::isData).map(Path::toFile).forEach(File::delete);
-      Files.deleteIfExists(directory);
+      snapshotCache.invalidateArena(name);
+      GaiaContainer container = containers.remove(name);
+      if (container != null) container.close();
+      palettes.remove(name);
+      codecs.remove(name);
+      Files.deleteIfExists(getContainerPath(name));
+      if (Files.isDirectory(directory)) {
+        Files.walk(directory, 1).filter(IO::isData).map(Path::toFile).forEach(File::delete);
+        Files.deleteIfExists(directory);
+      }
       Files.deleteIfExists(file);
       return true;
     } catch (IOException e) {
@@ -134,47 +165,170 @@ public final class GaiaIO {
     return path.getFileName().toString().endsWith(DATA_SUFFIX);
   }
 
+  /**
+   * Loads all arenas using a bounded pool of worker threads.
+   * Metadata parsing and chunk verification run in parallel and each arena is added to the
+   * arena manager as soon as all of its chunks have been verified. Unless full verification is enabled,
+   * chunks whose files haven't changed since they were last verified are not hashed again.
+   * This method blocks until every arena has been processed.
+   */
   public void loadAllArenas() {
-    try {
-      Files.walk(arenaDir, 1).filter(IO::isJson).forEach(IO::loadArena);
+    final long time = System.currentTimeMillis();
+    final List<Path> paths;
+    try (Stream<Path> stream = Files.walk(arenaDir, 1)) {
+      paths = stream.filter(IO::isJson).collect(Collectors.toList());
     } catch (IOException e) {
       e.printStackTrace();
+      return;
+    }
+    if (paths.isEmpty()) return;
+    verificationCache.load();
+    int requested = options.loadThreads > 0 ? options.loadThreads : Runtime.getRuntime().availableProcessors();
+    int threads = Math.max(1, Math.min(requested, paths.size() * 4));
+    ExecutorService executor = Executors.newFixedThreadPool(threads, r -> {
+      Thread thread = new Thread(r, "Gaia Arena Loader");
+      thread.setDaemon(true);
+      return thread;
+    });
+    try {
+      CompletableFuture<?>[] futures = paths.stream()
+        .map(p -> CompletableFuture.supplyAsync(() -> readArenaMetadata(p), executor)
+          .thenCompose(m -> loadArena(m, executor))
+          .exceptionally(t -> {
+            t.printStackTrace();
+            return false;
+          })
+        ).toArray(CompletableFuture[]::new);
+      CompletableFuture.allOf(futures).join();
+      long loaded = Arrays.stream(futures).filter(f -> Boolean.TRUE.equals(f.join())).count();
+      plugin.getLog().info("Loaded " + loaded + "/" + paths.size() + " arenas using " + threads + " threads (" + (System.currentTimeMillis() - time) + "ms)");
+      verificationCache.save();
+    } finally {
+      executor.shutdown();
     }
   }
 
-  private void loadArena(@NonNull Path path) {
-    final long time = System.currentTimeMillis();
+  private @Nullable ArenaMetadata readArenaMetadata(@NonNull Path path) {
     try (JsonReader reader = new JsonReader(new InputStreamReader(new FileInputStream(path.toFile()), StandardCharsets.UTF_8))) {
       ArenaMetadata meta = gson.fromJson(reader, ArenaMetadata.class);
-      if (meta == null || !meta.isValidMetadata()) return;
-      int amount = meta.amount;
-      GaiaWorld w = plugin.getWorld(UUID.fromString(meta.world));
-      if (w == null) return;
-      Arena arena = new Arena(meta.name, w, new GaiaRegion(meta.min, meta.max));
-      meta.chunks.stream().filter(ChunkMetadata::isValidMetadata).forEach(m -> {
-        Path chunkPath = Paths.get(arenaDir.toString(), meta.name, m.id + DATA_SUFFIX);
-        if (isValidFile(chunkPath, m.hash)) {
-          UUID id = UUID.fromString(m.id);
-          plugin.adaptChunk(id, arena, new GaiaRegion(m.min, m.max));
-        }
-      });
-      if (debug && arena.getSubRegions().size() != amount) {
+      if (meta != null && meta.isValidMetadata()) return meta;
+    } catch (IOException | JsonParseException e) {
+      e.printStackTrace();
+    }
+    if (debug) plugin.getLog().warning("Invalid arena metadata: " + path);
+    return null;
+  }
+
+  private @NonNull CompletableFuture<@NonNull Boolean> loadArena(@Nullable ArenaMetadata meta, @NonNull Executor executor) {
+    if (meta == null) return CompletableFuture.completedFuture(false);
+    final long time = System.currentTimeMillis();
+    GaiaWorld w = plugin.getWorld(UUID.fromString(meta.world));
+    if (w == null) return CompletableFuture.completedFuture(false);
+    Arena arena = new Arena(meta.name, w, new GaiaRegion(meta.min, meta.max));
+    arena.setMetadata(meta);
+    if (meta.palette != null) palettes.put(meta.name, new ArenaPalette(meta.palette));
+    codecs.put(meta.name, meta.getCodec());
+    GaiaContainer container = openContainer(meta.name);
+    List<ChunkMetadata> chunks = meta.chunks.stream().filter(ChunkMetadata::isValidMetadata).collect(Collectors.toList());
+    CompletableFuture<?>[] verified = chunks.stream()
+      .map(m -> CompletableFuture.supplyAsync(() -> verifyChunk(meta.name, container, m, options.fullVerify), executor))
+      .toArray(CompletableFuture[]::new);
+    // Chunks are adapted in a single stage as arenas are not thread-safe
+    return CompletableFuture.allOf(verified).thenApply(ignored -> {
+      Map<UUID, Path> migrated = new LinkedHashMap<>();
+      for (int i = 0; i < verified.length; i++) {
+        if (!Boolean.TRUE.equals(verified[i].join())) continue;
+        ChunkMetadata m = chunks.get(i);
+        UUID id = UUID.fromString(m.id);
+        if (container == null) migrated.put(id, Paths.get(arenaDir.toString(), meta.name, m.id + DATA_SUFFIX));
+        plugin.adaptChunk(id, arena, new GaiaRegion(m.min, m.max)).setMetadata(m);
+      }
+      if (container == null && options.singleFile && !migrated.isEmpty()) {
+        packArena(meta.name, migrated);
+      }
+      if (debug && arena.getSubRegions().size() != meta.amount) {
         plugin.getLog().warning("Incomplete loading for arena: " + arena.getName());
       }
       if (arena.finalizeArena()) {
         plugin.getLog().info("Loaded arena: " + arena.getName() + " (" + (System.currentTimeMillis() - time) + "ms)");
         plugin.getArenaManager().addArena(arena);
+        return true;
       }
+      return false;
+    });
+  }
+
+  /**
+   * Verifies the checksums of all data for the specified arena, ignoring previous verification results.
+   * @param arena the arena to verify
+   * @return a future with the amount of chunks that failed verification
+   */
+  public @NonNull CompletableFuture<@NonNull Integer> verifyArena(@NonNull Arena arena) {
+    final ArenaMetadata meta = (ArenaMetadata) arena.getMetadata();
+    if (meta == null) return CompletableFuture.completedFuture(arena.getSubRegions().size());
+    return CompletableFuture.supplyAsync(() -> {
+      GaiaContainer container = containers.get(meta.name);
+      int failed = (int) meta.chunks.stream().filter(m -> !m.isValidMetadata() || !verifyChunk(meta.name, container, m, true)).count();
+      verificationCache.save();
+      return failed;
+    });
+  }
+
+  private boolean verifyChunk(@NonNull String name, @Nullable GaiaContainer container, @NonNull ChunkMetadata m, boolean force) {
+    final Path file;
+    final String key;
+    if (container != null) {
+      file = getContainerPath(name);
+      key = name + GaiaContainer.SUFFIX + ":" + m.id;
+    } else {
+      file = Paths.get(arenaDir.toString(), name, m.id + DATA_SUFFIX);
+      key = name + "/" + m.id + DATA_SUFFIX;
+    }
+    final BasicFileAttributes attributes;
+    try {
+      attributes = Files.readAttributes(file, BasicFileAttributes.class);
     } catch (IOException e) {
-      e.printStackTrace();
+      if (debug) plugin.getLog().warning("Could not find data for chunk: " + key);
+      verificationCache.invalidate(key);
+      return false;
+    }
+    if (!force && verificationCache.isVerified(key, attributes, m.hash)) return true;
+    final boolean valid;
+    if (container != null) {
+      ByteBuffer slice = container.slice(UUID.fromString(m.id));
+      valid = slice != null && isValidData(new ByteBufferInputStream(slice), m, key);
+    } else {
+      valid = isValidFile(file, m);
     }
+    if (valid) {
+      verificationCache.markVerified(key, attributes, m.hash);
+    } else {
+      verificationCache.invalidate(key);
+    }
+    return valid;
   }
 
+  /**
+   * Stores arena metadata along with the palette that its chunk data references.
+   * @param meta the metadata to store
+   * @return true if the metadata was stored successfully, false otherwise
+   */
   public boolean saveArena(@NonNull ArenaMetadata meta) {
     Path path = Paths.get(arenaDir.toString(), meta.name + ARENA_SUFFIX);
+    ArenaPalette palette = palettes.get(meta.name);
+    if (palette != null) meta.palette = palette.getStates();
+    CompressionCodec codec = codecs.get(meta.name);
+    if (codec != null) meta.compression = codec.name();
     try (OutputStreamWriter writer = new OutputStreamWriter(new FileOutputStream(path.toFile()), StandardCharsets.UTF_8)) {
       gson.toJson(meta, writer);
       plugin.getLog().info(meta.name + " has been stored successfully.");
+      if (options.singleFile) {
+        Map<UUID, Path> files = new LinkedHashMap<>();
+        for (ChunkMetadata m : meta.chunks) {
+          files.put(UUID.fromString(m.id), Paths.get(arenaDir.toString(), meta.name, m.id + DATA_SUFFIX));
+        }
+        packArena(meta.name, files);
+      }
       return true;
     } catch (IOException e) {
       e.printStackTrace();
@@ -182,45 +336,193 @@ public final class GaiaIO {
     return false;
   }
 
+  /**
+   * Loads the data for the specified chunk, using the {@link SnapshotCache} if it's enabled for the chunk's arena.
+   * If the chunk has metadata, its checksum is computed while the data is being decoded
+   * and no data is returned if it doesn't match. Cached data is not verified again.
+   * @param chunk the chunk to load data for
+   * @return the loaded data or null if it couldn't be loaded or failed verification
+   */
   public @Nullable GaiaData loadData(@NonNull GaiaChunk chunk) {
-    Path path = Paths.get(arenaDir.toString(), chunk.getParent().getName(), chunk.getId() + DATA_SUFFIX);
+    final String arena = chunk.getParent().getName();
+    final UUID id = chunk.getId();
+    final ChunkMetadata meta = (ChunkMetadata) chunk.getMetadata();
+    switch (snapshotCache.getMode(arena)) {
+      case DECODED:
+        GaiaData cached = snapshotCache.getData(id);
+        if (cached != null) return cached;
+        GaiaData data = decodeData(chunk, meta, () -> openData(chunk));
+        if (data != null) snapshotCache.putData(arena, id, data);
+        return data;
+      case COMPRESSED:
+        byte[] compressed = snapshotCache.getCompressed(id);
+        if (compressed != null) return decodeData(chunk, null, () -> new ByteArrayInputStream(compressed));
+        final byte[] bytes;
+        try (InputStream is = openData(chunk)) {
+          bytes = is.readAllBytes();
+        } catch (IOException e) {
+          e.printStackTrace();
+          return null;
+        }
+        GaiaData result = decodeData(chunk, meta, () -> new ByteArrayInputStream(bytes));
+        if (result != null) snapshotCache.putCompressed(arena, id, bytes);
+        return result;
+      default:
+        return decodeData(chunk, meta, () -> openData(chunk));
+    }
+  }
+
+  private @Nullable GaiaData decodeData(@NonNull GaiaChunk chunk, @Nullable ChunkMetadata meta, @NonNull DataSource source) {
+    try {
+      return readData(chunk, meta, source, true);
+    } catch (ChecksumMismatchException e) {
+      plugin.getLog().warning(e.getMessage());
+      return null;
+    } catch (IOException e) {
+      if (debug) plugin.getLog().warning("Falling back to tag reader for chunk " + chunk.getId() + ": " + e.getMessage());
+    }
+    try {
+      return readData(chunk, meta, source, false);
+    } catch (ChecksumMismatchException e) {
+      plugin.getLog().warning(e.getMessage());
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    return null;
+  }
+
+  private @NonNull GaiaData readData(@NonNull GaiaChunk chunk, @Nullable ChunkMetadata meta, @NonNull DataSource source, boolean streaming) throws IOException {
+    final ChecksumAlgorithm algorithm = meta == null ? null : meta.getAlgorithm();
+    final ArenaPalette palette = palettes.get(chunk.getParent().getName());
+    final GaiaBlockData[] arenaPalette = palette == null ? null : palette.resolve(plugin);
+    final CompressionCodec codec = getCodec(chunk.getParent().getName());
     try (Closer closer = Closer.create()) {
-      FileInputStream fis = closer.register(new FileInputStream(path.toFile()));
-      BufferedInputStream bis = closer.register(new BufferedInputStream(fis));
-      GaiaReader reader = closer.register(new GaiaReader(plugin, new NBTInputStream(new GZIPInputStream(bis))));
-      return reader.read();
+      InputStream is = closer.register(source.open());
+      ChecksumInputStream cis = algorithm == null ? null : closer.register(new ChecksumInputStream(is, algorithm.create()));
+      InputStream dis = closer.register(codec.decompress(cis == null ? is : cis));
+      final GaiaData data;
+      if (streaming) {
+        data = closer.register(new GaiaStreamReader(plugin, dis, arenaPalette)).read();
+      } else {
+        data = closer.register(new GaiaReader(plugin, new NBTInputStream(dis), arenaPalette)).read();
+      }
+      if (cis != null) {
+        byte[] buffer = new byte[512];
+        while (dis.read(buffer) >= 0) {
+          // Consume any trailer of the codec so every byte of the file is hashed
+        }
+        String checksum = cis.finish();
+        if (!checksum.equals(meta.hash)) {
+          throw new ChecksumMismatchException("Checksums don't match for chunk " + chunk.getId() + " of arena " +
+            chunk.getParent().getName() + " (expected " + meta.hash + ", found " + checksum + "), it won't be reverted.");
+        }
+      }
+      return data;
+    }
+  }
+
+  private @NonNull CompressionCodec getCodec(@NonNull String arena) {
+    return codecs.getOrDefault(arena, CompressionCodec.LEGACY);
+  }
+
+  private @NonNull InputStream openData(@NonNull GaiaChunk chunk) throws IOException {
+    GaiaContainer container = containers.get(chunk.getParent().getName());
+    if (container != null) {
+      ByteBuffer slice = container.slice(chunk.getId());
+      if (slice == null) throw new IOException("Chunk " + chunk.getId() + " is missing from container");
+      return new ByteBufferInputStream(slice);
+    }
+    Path path = Paths.get(arenaDir.toString(), chunk.getParent().getName(), chunk.getId() + DATA_SUFFIX);
+    return new BufferedInputStream(new FileInputStream(path.toFile()));
+  }
+
+  private @NonNull Path getContainerPath(@NonNull String name) {
+    return Paths.get(arenaDir.toString(), name + GaiaContainer.SUFFIX);
+  }
+
+  private @Nullable GaiaContainer openContainer(@NonNull String name) {
+    Path path = getContainerPath(name);
+    if (!Files.exists(path)) return null;
+    try {
+      GaiaContainer container = GaiaContainer.open(path);
+      containers.put(name, container);
+      return container;
     } catch (IOException e) {
       e.printStackTrace();
     }
     return null;
   }
 
+  /**
+   * Packs chunk files into a single container and removes them once the container can be opened.
+   */
+  private void packArena(@NonNull String name, @NonNull Map<@NonNull UUID, @NonNull Path> files) {
+    GaiaContainer previous = containers.remove(name);
+    if (previous != null) previous.close(); // Release the old mapping before its file is replaced
+    try {
+      GaiaContainer.pack(getContainerPath(name), files);
+    } catch (IOException e) {
+      e.printStackTrace();
+      if (previous != null) openContainer(name); // The old file is still in place
+      return;
+    }
+    if (openContainer(name) == null) return;
+    try {
+      for (Path file : files.values()) {
+        Files.deleteIfExists(file);
+      }
+      Files.deleteIfExists(Paths.get(arenaDir.toString(), name));
+    } catch (IOException e) {
+      if (debug) plugin.getLog().warning("Could not clean up chunk files for " + name + ": " + e.getMessage());
+    }
+    if (debug) plugin.getLog().info("Packed " + files.size() + " chunks into a single file for " + name);
+  }
+
+  /**
+   * Stores the data for the specified chunk. Block states are added to the palette of the chunk's arena
+   * which is stored along with its metadata by {@link #saveArena(ArenaMetadata)}.
+   * @param chunk the chunk to store data for
+   * @param data the data to store
+   * @return the checksum of the stored data or an empty string if it couldn't be stored
+   */
   public @NonNull String saveData(@NonNull GaiaChunk chunk, @NonNull GaiaData data) {
     Path path = Paths.get(arenaDir.toString(), chunk.getParent().getName(), chunk.getId() + DATA_SUFFIX);
-    DigestOutputStream hos;
+    ArenaPalette palette = palettes.computeIfAbsent(chunk.getParent().getName(), k -> new ArenaPalette());
+    CompressionCodec codec = codecs.computeIfAbsent(chunk.getParent().getName(), k -> options.arenaCompression.getOrDefault(k, options.compression));
+    ChecksumOutputStream hos;
     try (Closer closer = Closer.create()) {
       FileOutputStream fos = closer.register(new FileOutputStream(path.toFile()));
-      hos = closer.register(new DigestOutputStream(fos, MessageDigest.getInstance(ALGORITHM)));
+      hos = closer.register(new ChecksumOutputStream(fos, options.checksum.create()));
       BufferedOutputStream bos = closer.register(new BufferedOutputStream(hos));
-      GaiaWriter writer = closer.register(new GaiaWriter(new NBTOutputStream(new GZIPOutputStream(bos))));
-      writer.write(data);
-    } catch (IOException | NoSuchAlgorithmException e) {
+      GaiaWriter writer = closer.register(new GaiaWriter(new NBTOutputStream(codec.compress(bos, options.compressionLevel))));
+      writer.write(data, palette);
+    } catch (IOException e) {
       e.printStackTrace();
       return "";
     }
-    byte[] hashBytes = hos.getMessageDigest().digest();
-    String checksum = Util.toHex(hashBytes);
-    chunk.setMetadata(new ChunkMetadata(chunk, checksum));
+    String checksum = hos.getChecksum();
+    snapshotCache.invalidate(chunk.getId());
+    chunk.setMetadata(new ChunkMetadata(chunk, checksum, options.checksum));
     return checksum;
   }
 
 
-  private boolean isValidFile(Path path, String checksum) {
+  private boolean isValidFile(Path path, ChunkMetadata meta) {
     if (!path.getFileName().toString().endsWith(DATA_SUFFIX)) return false;
-    final String actualChecksum = getFileChecksum(path);
+    try {
+      return isValidData(new FileInputStream(path.toFile()), meta, path.toString());
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+    return false;
+  }
+
+  private boolean isValidData(InputStream stream, ChunkMetadata meta, String source) {
+    final String checksum = meta.hash;
+    final String actualChecksum = getChecksum(stream, meta.getAlgorithm());
     final boolean match = checksum.equals(actualChecksum);
     if (debug && !match) {
-      plugin.getLog().warning("Checksums don't match for file: " + path.toString());
+      plugin.getLog().warning("Checksums don't match for file: " + source);
       plugin.getLog().info("Expected: " + checksum);
       plugin.getLog().info("Found: " + actualChecksum);
       plugin.getLog().warning("Your data might be corrupted. Arena won't load for safety reasons.");
@@ -228,18 +530,29 @@ public final class GaiaIO {
     return match;
   }
 
-  private String getFileChecksum(Path filePath) {
+  private String getChecksum(InputStream input, ChecksumAlgorithm algorithm) {
     byte[] buffer = new byte[65536];
-    try (FileInputStream stream = new FileInputStream(filePath.toFile())) {
-      MessageDigest md = MessageDigest.getInstance(ALGORITHM);
+    try (InputStream stream = input) {
+      ChecksumAlgorithm.Hasher hasher = algorithm.create();
       int bytesRead;
       while ((bytesRead = stream.read(buffer)) > 0) {
-        md.update(buffer, 0, bytesRead);
+        hasher.update(buffer, 0, bytesRead);
       }
-      return Util.toHex(md.digest());
-    } catch (IOException | NoSuchAlgorithmException e) {
+      return hasher.getValue();
+    } catch (IOException e) {
       e.printStackTrace();
     }
     return "";
   }
+
+  @FunctionalInterface
+  private interface DataSource {
+    @NonNull InputStream open() throws IOException;
+  }
+
+  private static final class ChecksumMismatchException extends IOException {
+    private ChecksumMismatchException(String message) {
+      super(message);
+    }
+  }
 }
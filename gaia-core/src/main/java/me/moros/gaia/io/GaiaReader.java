@@ -23,32 +23,48 @@ package me.moros.gaia.io;
 
 import java.io.Closeable;
 import java.io.IOException;
-import java.util.HashMap;
+import java.util.Arrays;
 import java.util.Map;
 import javax.annotation.Nullable;
 
 import com.sk89q.jnbt.ByteArrayTag;
 import com.sk89q.jnbt.CompoundTag;
+import com.sk89q.jnbt.IntArrayTag;
 import com.sk89q.jnbt.IntTag;
+import com.sk89q.jnbt.LongArrayTag;
 import com.sk89q.jnbt.NBTInputStream;
 import com.sk89q.jnbt.ShortTag;
 import com.sk89q.jnbt.Tag;
 import me.moros.gaia.GaiaPlugin;
 import me.moros.gaia.api.GaiaData;
 import me.moros.gaia.api.GaiaVector;
+import me.moros.gaia.platform.GaiaBlockData;
+import me.moros.gaia.util.BitStorage;
+import me.moros.gaia.util.metadata.GaiaMetadata;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 public class GaiaReader implements Closeable {
   private final GaiaPlugin platform;
   private final NBTInputStream inputStream;
+  private final GaiaBlockData[] arenaPalette;
 
   /**
    * Create a new instance.
    * @param inputStream the input stream to read from
    */
   protected GaiaReader(@NonNull GaiaPlugin platform, @NonNull NBTInputStream inputStream) {
+    this(platform, inputStream, null);
+  }
+
+  /**
+   * Create a new instance.
+   * @param inputStream the input stream to read from
+   * @param arenaPalette the resolved arena palette that palette references point to or null if there is none
+   */
+  protected GaiaReader(@NonNull GaiaPlugin platform, @NonNull NBTInputStream inputStream, @Nullable GaiaBlockData[] arenaPalette) {
     this.platform = platform;
     this.inputStream = inputStream;
+    this.arenaPalette = arenaPalette;
   }
 
   private CompoundTag getBaseTag() throws IOException {
@@ -59,21 +75,46 @@ public class GaiaReader implements Closeable {
     CompoundTag schematicTag = getBaseTag();
     Map<String, Tag> schematic = schematicTag.getValue();
 
+    IntTag versionTag = getTag(schematic, "Version", IntTag.class);
+    if (versionTag != null && versionTag.getValue() > GaiaMetadata.VERSION) {
+      throw new IOException("Unsupported format version: " + versionTag.getValue());
+    }
+
     int width = requireTag(schematic, "Width", ShortTag.class).getValue();
     int height = requireTag(schematic, "Height", ShortTag.class).getValue();
     int length = requireTag(schematic, "Length", ShortTag.class).getValue();
 
     IntTag paletteMaxTag = getTag(schematic, "PaletteMax", IntTag.class);
-    Map<String, Tag> paletteObject = requireTag(schematic, "Palette", CompoundTag.class).getValue();
-    if (paletteMaxTag != null && paletteObject.size() != paletteMaxTag.getValue()) {
+    IntArrayTag refsTag = getTag(schematic, "PaletteRefs", IntArrayTag.class);
+    final GaiaBlockData[] palette;
+    if (refsTag != null) {
+      palette = resolveRefs(refsTag.getValue(), arenaPalette);
+    } else {
+      Map<String, Tag> paletteObject = requireTag(schematic, "Palette", CompoundTag.class).getValue();
+      // Resolve every palette entry once instead of once per block
+      palette = new GaiaBlockData[paletteObject.size()];
+      for (String palettePart : paletteObject.keySet()) {
+        int id = requireTag(paletteObject, palettePart, IntTag.class).getValue();
+        if (id < 0 || id >= palette.length || palette[id] != null) {
+          throw new IOException("Invalid block palette id: " + id);
+        }
+        palette[id] = platform.getBlockDataFromString(palettePart);
+      }
+    }
+    if (paletteMaxTag != null && palette.length != paletteMaxTag.getValue()) {
       throw new IOException("Block palette size does not match expected size.");
     }
 
-    Map<Integer, String> palette = new HashMap<>();
-
-    for (String palettePart : paletteObject.keySet()) {
-      int id = requireTag(paletteObject, palettePart, IntTag.class).getValue();
-      palette.put(id, palettePart);
+    GaiaVector size = GaiaVector.at(width, height, length);
+    LongArrayTag packedTag = getTag(schematic, "BlockStates", LongArrayTag.class);
+    IntArrayTag sectionsTag = getTag(schematic, "Sections", IntArrayTag.class);
+    IntTag offsetTag = getTag(schematic, "SectionOffset", IntTag.class);
+    if (packedTag != null && sectionsTag != null) {
+      int offset = offsetTag == null ? 0 : offsetTag.getValue();
+      return createSections(size, offset, palette, sectionsTag.getValue(), packedTag.getValue());
+    }
+    if (packedTag != null) {
+      return createPacked(size, palette, packedTag.getValue());
     }
 
     byte[] blocks = requireTag(schematic, "BlockData", ByteArrayTag.class).getValue();
@@ -81,7 +122,8 @@ public class GaiaReader implements Closeable {
     int i = 0;
     int value;
     int varintLength;
-    GaiaData data = new GaiaData(GaiaVector.at(width, height, length));
+    GaiaData data = new GaiaData(size, Arrays.asList(palette));
+    int volume = data.getVolume();
     while (i < blocks.length) {
       value = 0;
       varintLength = 0;
@@ -97,16 +139,106 @@ public class GaiaReader implements Closeable {
         }
         i++;
       }
+      if (index >= volume || value < 0 || value >= palette.length) {
+        throw new IOException("Invalid block data (probably corrupted data)");
+      }
       // index = (y * length * width) + (z * width) + x
-      int y = index / (width * length);
-      int z = (index % (width * length)) / width;
-      int x = (index % (width * length)) % width;
-      data.setDataAt(x, y, z, platform.getBlockDataFromString(palette.get(value)));
+      data.setPaletteId(index, value);
       index++;
     }
     return data;
   }
 
+  /**
+   * Maps palette references to entries of an arena palette.
+   * @param refs the arena palette index for each palette entry
+   * @param arenaPalette the resolved arena palette
+   * @return the palette
+   * @throws IOException if there is no arena palette or a reference is out of bounds
+   */
+  protected static @NonNull GaiaBlockData[] resolveRefs(int @NonNull [] refs, @Nullable GaiaBlockData[] arenaPalette) throws IOException {
+    if (arenaPalette == null) throw new IOException("Schematic file references an arena palette that is not available");
+    GaiaBlockData[] palette = new GaiaBlockData[refs.length];
+    for (int i = 0; i < refs.length; i++) {
+      if (refs[i] < 0 || refs[i] >= arenaPalette.length) {
+        throw new IOException("Invalid arena palette id: " + refs[i]);
+      }
+      palette[i] = arenaPalette[refs[i]];
+    }
+    return palette;
+  }
+
+  /**
+   * Creates data from palette indices that are bit-packed using the minimum amount of bits for the palette size.
+   * @param size the dimensions of the data
+   * @param palette the resolved palette
+   * @param words the packed palette indices
+   * @return the data backed by the passed words
+   * @throws IOException if the words don't match the dimensions or contain invalid palette indices
+   */
+  protected static @NonNull GaiaData createPacked(@NonNull GaiaVector size, @NonNull GaiaBlockData[] palette, long @NonNull [] words) throws IOException {
+    final BitStorage storage;
+    try {
+      storage = new BitStorage(BitStorage.bitsFor(palette.length), size.getLength(), words);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Block states do not match expected size (probably corrupted data)");
+    }
+    if (palette.length != 1 << storage.getBits()) { // Only needed when not every index is a valid palette entry
+      for (int i = 0; i < storage.getSize(); i++) {
+        if (storage.get(i) >= palette.length) throw new IOException("Invalid block data (probably corrupted data)");
+      }
+    }
+    return new GaiaData(size, Arrays.asList(palette), storage);
+  }
+
+  /**
+   * Creates data from sections that either consist of a single palette index or are bit-packed back to back.
+   * @param size the dimensions of the data
+   * @param sectionOffset the amount of layers between the bottom of the first section and the lowest layer
+   * @param palette the resolved palette
+   * @param sections the palette index of each uniform section or -1 for each mixed section
+   * @param words the packed palette indices of all mixed sections
+   * @return the data
+   * @throws IOException if the sections don't match the dimensions or contain invalid palette indices
+   */
+  protected static @NonNull GaiaData createSections(@NonNull GaiaVector size, int sectionOffset, @NonNull GaiaBlockData[] palette, int @NonNull [] sections, long @NonNull [] words) throws IOException {
+    if (sectionOffset < 0 || sectionOffset >= GaiaData.SECTION_HEIGHT) {
+      throw new IOException("Invalid section offset: " + sectionOffset);
+    }
+    GaiaData data = new GaiaData(size, Arrays.asList(palette));
+    data.alignSections(sectionOffset);
+    if (sections.length != data.getSectionCount()) {
+      throw new IOException("Sections do not match expected size (probably corrupted data)");
+    }
+    int mixedBlocks = 0;
+    for (int section = 0; section < sections.length; section++) {
+      if (sections[section] < -1 || sections[section] >= palette.length) {
+        throw new IOException("Invalid block data (probably corrupted data)");
+      }
+      if (sections[section] < 0) mixedBlocks += data.getSectionEnd(section) - data.getSectionStart(section);
+    }
+    final BitStorage packed;
+    try {
+      packed = new BitStorage(data.getStorage().getBits(), mixedBlocks, words);
+    } catch (IllegalArgumentException e) {
+      throw new IOException("Block states do not match expected size (probably corrupted data)");
+    }
+    int offset = 0;
+    for (int section = 0; section < sections.length; section++) {
+      if (sections[section] >= 0) {
+        if (sections[section] > 0) data.fillSection(section, sections[section]); // New data already starts at index 0
+        continue;
+      }
+      int end = data.getSectionEnd(section);
+      for (int index = data.getSectionStart(section); index < end; index++) {
+        int id = packed.get(offset++);
+        if (id >= palette.length) throw new IOException("Invalid block data (probably corrupted data)");
+        data.setPaletteId(index, id);
+      }
+    }
+    return data;
+  }
+
   protected static <T extends Tag> T requireTag(Map<String, Tag> items, String key, Class<T> expected) throws IOException {
     if (!items.containsKey(key)) {
       throw new IOException("Schematic file is missing a \"" + key + "\" tag");
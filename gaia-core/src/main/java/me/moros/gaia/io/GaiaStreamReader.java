@@ -0,0 +1,368 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+import me.moros.gaia.GaiaPlugin;
+import me.moros.gaia.api.GaiaData;
+import me.moros.gaia.api.GaiaVector;
+import me.moros.gaia.platform.GaiaBlockData;
+import me.moros.gaia.util.metadata.GaiaMetadata;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * Decodes the same formats as {@link GaiaReader} by walking the NBT byte stream directly.
+ * The palette is collected into an array and block ids are decoded straight into {@link GaiaData}
+ * without creating intermediate tag objects. Bit-packed block states are read in bulk and used as is.
+ */
+public class GaiaStreamReader implements Closeable {
+  private static final int TAG_END = 0;
+  private static final int TAG_BYTE = 1;
+  private static final int TAG_SHORT = 2;
+  private static final int TAG_INT = 3;
+  private static final int TAG_LONG = 4;
+  private static final int TAG_FLOAT = 5;
+  private static final int TAG_DOUBLE = 6;
+  private static final int TAG_BYTE_ARRAY = 7;
+  private static final int TAG_STRING = 8;
+  private static final int TAG_LIST = 9;
+  private static final int TAG_COMPOUND = 10;
+  private static final int TAG_INT_ARRAY = 11;
+  private static final int TAG_LONG_ARRAY = 12;
+
+  private static final int BUFFER_SIZE = 8192;
+
+  private final GaiaPlugin platform;
+  private final DataInputStream inputStream;
+  private final GaiaBlockData[] arenaPalette;
+
+  /**
+   * Create a new instance.
+   * @param inputStream the uncompressed input stream to read from
+   */
+  protected GaiaStreamReader(@NonNull GaiaPlugin platform, @NonNull InputStream inputStream) {
+    this(platform, inputStream, null);
+  }
+
+  /**
+   * Create a new instance.
+   * @param inputStream the uncompressed input stream to read from
+   * @param arenaPalette the resolved arena palette that palette references point to or null if there is none
+   */
+  protected GaiaStreamReader(@NonNull GaiaPlugin platform, @NonNull InputStream inputStream, @Nullable GaiaBlockData[] arenaPalette) {
+    this.platform = platform;
+    this.inputStream = new DataInputStream(inputStream);
+    this.arenaPalette = arenaPalette;
+  }
+
+  protected @NonNull GaiaData read() throws IOException {
+    if (inputStream.readByte() != TAG_COMPOUND) throw new IOException("Schematic file does not start with a compound tag");
+    inputStream.readUTF();
+
+    int width = -1, height = -1, length = -1, paletteMax = -1, sectionOffset = 0;
+    GaiaBlockData[] palette = null;
+    byte[] pendingBlocks = null;
+    long[] packedBlocks = null;
+    int[] sections = null;
+    GaiaData data = null;
+
+    int type;
+    while ((type = inputStream.readByte()) != TAG_END) {
+      String name = inputStream.readUTF();
+      switch (name) {
+        case "Version":
+          int version = readInt(type, name);
+          if (version > GaiaMetadata.VERSION) throw new IOException("Unsupported format version: " + version);
+          break;
+        case "Width":
+          width = readShort(type, name);
+          break;
+        case "Height":
+          height = readShort(type, name);
+          break;
+        case "Length":
+          length = readShort(type, name);
+          break;
+        case "PaletteMax":
+          paletteMax = readInt(type, name);
+          break;
+        case "Palette":
+          requireType(type, TAG_COMPOUND, name);
+          palette = readPalette();
+          break;
+        case "PaletteRefs":
+          requireType(type, TAG_INT_ARRAY, name);
+          palette = GaiaReader.resolveRefs(readIntArray(), arenaPalette);
+          break;
+        case "BlockData":
+          requireType(type, TAG_BYTE_ARRAY, name);
+          int size = inputStream.readInt();
+          if (width >= 0 && height >= 0 && length >= 0 && palette != null) {
+            data = new GaiaData(GaiaVector.at(width, height, length), Arrays.asList(palette));
+            decodeBlocks(data, palette.length, size);
+          } else { // Tags can appear in any order, keep the raw bytes until everything else is known
+            pendingBlocks = new byte[size];
+            inputStream.readFully(pendingBlocks);
+          }
+          break;
+        case "BlockStates":
+          requireType(type, TAG_LONG_ARRAY, name);
+          packedBlocks = readLongArray();
+          break;
+        case "Sections":
+          requireType(type, TAG_INT_ARRAY, name);
+          sections = readIntArray();
+          break;
+        case "SectionOffset":
+          sectionOffset = readInt(type, name);
+          break;
+        default:
+          skipPayload(type);
+          break;
+      }
+    }
+
+    if (width < 0) throw missingTag("Width");
+    if (height < 0) throw missingTag("Height");
+    if (length < 0) throw missingTag("Length");
+    if (palette == null) throw missingTag("Palette");
+    if (paletteMax >= 0 && palette.length != paletteMax) {
+      throw new IOException("Block palette size does not match expected size.");
+    }
+    if (packedBlocks != null && sections != null) {
+      return GaiaReader.createSections(GaiaVector.at(width, height, length), sectionOffset, palette, sections, packedBlocks);
+    }
+    if (packedBlocks != null) {
+      return GaiaReader.createPacked(GaiaVector.at(width, height, length), palette, packedBlocks);
+    }
+    if (data == null) {
+      if (pendingBlocks == null) throw missingTag("BlockData");
+      data = new GaiaData(GaiaVector.at(width, height, length), Arrays.asList(palette));
+      BlockDecoder decoder = new BlockDecoder(data, palette.length);
+      decoder.accept(pendingBlocks, pendingBlocks.length);
+      decoder.finish();
+    }
+    return data;
+  }
+
+  private GaiaBlockData[] readPalette() throws IOException {
+    String[] keys = new String[16];
+    int[] ids = new int[16];
+    int count = 0;
+    int type;
+    while ((type = inputStream.readByte()) != TAG_END) {
+      String key = inputStream.readUTF();
+      if (count == keys.length) {
+        keys = Arrays.copyOf(keys, count * 2);
+        ids = Arrays.copyOf(ids, count * 2);
+      }
+      keys[count] = key;
+      ids[count] = readInt(type, key);
+      count++;
+    }
+    // Resolve every palette entry once instead of once per block
+    GaiaBlockData[] palette = new GaiaBlockData[count];
+    for (int i = 0; i < count; i++) {
+      int id = ids[i];
+      if (id < 0 || id >= count || palette[id] != null) {
+        throw new IOException("Invalid block palette id: " + id);
+      }
+      palette[id] = platform.getBlockDataFromString(keys[i]);
+    }
+    return palette;
+  }
+
+  private void decodeBlocks(GaiaData data, int paletteSize, int size) throws IOException {
+    BlockDecoder decoder = new BlockDecoder(data, paletteSize);
+    byte[] buffer = new byte[Math.min(size, BUFFER_SIZE)];
+    int remaining = size;
+    while (remaining > 0) {
+      int amount = Math.min(remaining, buffer.length);
+      inputStream.readFully(buffer, 0, amount);
+      decoder.accept(buffer, amount);
+      remaining -= amount;
+    }
+    decoder.finish();
+  }
+
+  private long[] readLongArray() throws IOException {
+    int size = inputStream.readInt();
+    if (size < 0) throw new IOException("Invalid array length: " + size);
+    long[] words = new long[size];
+    byte[] buffer = new byte[(int) Math.min((long) size * Long.BYTES, BUFFER_SIZE)];
+    LongBuffer view = ByteBuffer.wrap(buffer).asLongBuffer();
+    int offset = 0;
+    while (offset < size) {
+      int amount = Math.min(size - offset, buffer.length / Long.BYTES);
+      inputStream.readFully(buffer, 0, amount * Long.BYTES);
+      view.rewind();
+      view.get(words, offset, amount);
+      offset += amount;
+    }
+    return words;
+  }
+
+  private int[] readIntArray() throws IOException {
+    int size = inputStream.readInt();
+    if (size < 0) throw new IOException("Invalid array length: " + size);
+    int[] values = new int[size];
+    for (int i = 0; i < size; i++) {
+      values[i] = inputStream.readInt();
+    }
+    return values;
+  }
+
+  private int readShort(int type, String name) throws IOException {
+    requireType(type, TAG_SHORT, name);
+    return inputStream.readShort();
+  }
+
+  private int readInt(int type, String name) throws IOException {
+    requireType(type, TAG_INT, name);
+    return inputStream.readInt();
+  }
+
+  private void skipPayload(int type) throws IOException {
+    switch (type) {
+      case TAG_BYTE:
+        skipFully(1);
+        break;
+      case TAG_SHORT:
+        skipFully(2);
+        break;
+      case TAG_INT:
+      case TAG_FLOAT:
+        skipFully(4);
+        break;
+      case TAG_LONG:
+      case TAG_DOUBLE:
+        skipFully(8);
+        break;
+      case TAG_BYTE_ARRAY:
+        skipFully(inputStream.readInt());
+        break;
+      case TAG_STRING:
+        skipFully(inputStream.readUnsignedShort());
+        break;
+      case TAG_LIST:
+        int elementType = inputStream.readByte();
+        int size = inputStream.readInt();
+        for (int i = 0; i < size; i++) {
+          skipPayload(elementType);
+        }
+        break;
+      case TAG_COMPOUND:
+        int childType;
+        while ((childType = inputStream.readByte()) != TAG_END) {
+          skipFully(inputStream.readUnsignedShort());
+          skipPayload(childType);
+        }
+        break;
+      case TAG_INT_ARRAY:
+        skipFully(4L * inputStream.readInt());
+        break;
+      case TAG_LONG_ARRAY:
+        skipFully(8L * inputStream.readInt());
+        break;
+      default:
+        throw new IOException("Invalid tag type: " + type);
+    }
+  }
+
+  private void skipFully(long amount) throws IOException {
+    long remaining = amount;
+    while (remaining > 0) {
+      long skipped = inputStream.skip(remaining);
+      if (skipped <= 0) {
+        if (inputStream.read() < 0) throw new EOFException();
+        skipped = 1;
+      }
+      remaining -= skipped;
+    }
+  }
+
+  private static void requireType(int actual, int expected, String key) throws IOException {
+    if (actual != expected) {
+      throw new IOException(key + " tag is not of tag type " + expected);
+    }
+  }
+
+  private static IOException missingTag(String key) {
+    return new IOException("Schematic file is missing a \"" + key + "\" tag");
+  }
+
+  @Override
+  public void close() throws IOException {
+    inputStream.close();
+  }
+
+  /**
+   * Decodes varint palette ids in y, z, x order, keeping its state across buffer boundaries.
+   */
+  private static final class BlockDecoder {
+    private final GaiaData data;
+    private final int paletteSize;
+    private final int volume;
+    private int index;
+    private int value;
+    private int shift;
+
+    private BlockDecoder(GaiaData data, int paletteSize) {
+      this.data = data;
+      this.paletteSize = paletteSize;
+      this.volume = data.getVolume();
+    }
+
+    private void accept(byte[] buffer, int amount) throws IOException {
+      int localIndex = index, localValue = value, localShift = shift;
+      for (int i = 0; i < amount; i++) {
+        byte b = buffer[i];
+        localValue |= (b & 127) << localShift;
+        if ((b & 128) == 128) {
+          localShift += 7;
+          if (localShift >= 35) throw new IOException("VarInt too big (probably corrupted data)");
+          continue;
+        }
+        if (localIndex >= volume || localValue < 0 || localValue >= paletteSize) {
+          throw new IOException("Invalid block data (probably corrupted data)");
+        }
+        data.setPaletteId(localIndex++, localValue);
+        localValue = 0;
+        localShift = 0;
+      }
+      index = localIndex;
+      value = localValue;
+      shift = localShift;
+    }
+
+    private void finish() throws IOException {
+      if (shift != 0) throw new IOException("Block data ends with an incomplete VarInt");
+    }
+  }
+}
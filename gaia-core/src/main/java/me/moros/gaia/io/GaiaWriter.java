@@ -25,16 +25,24 @@ import java.io.ByteArrayOutputStream;
 import java.io.Closeable;
 import java.io.IOException;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 import com.sk89q.jnbt.ByteArrayTag;
 import com.sk89q.jnbt.CompoundTag;
+import com.sk89q.jnbt.IntArrayTag;
 import com.sk89q.jnbt.IntTag;
+import com.sk89q.jnbt.LongArrayTag;
 import com.sk89q.jnbt.NBTOutputStream;
 import com.sk89q.jnbt.ShortTag;
 import com.sk89q.jnbt.Tag;
 import me.moros.gaia.api.GaiaData;
+import me.moros.gaia.platform.GaiaBlockData;
+import me.moros.gaia.util.BitStorage;
+import me.moros.gaia.util.metadata.GaiaMetadata;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class GaiaWriter implements Closeable {
   private final NBTOutputStream outputStream;
@@ -48,46 +56,134 @@ public class GaiaWriter implements Closeable {
   }
 
   public void write(@NonNull GaiaData data) throws IOException {
+    write(data, GaiaMetadata.VERSION, null);
+  }
+
+  public void write(@NonNull GaiaData data, @Nullable ArenaPalette arenaPalette) throws IOException {
+    write(data, GaiaMetadata.VERSION, arenaPalette);
+  }
+
+  public void write(@NonNull GaiaData data, int version) throws IOException {
+    write(data, version, null);
+  }
+
+  /**
+   * Writes data using the specified format version.
+   * Version 1 stores one varint per block while version 2 stores palette indices
+   * bit-packed into longs using the minimum amount of bits for the palette size.
+   * Version 3 additionally stores sections made of a single block state as just their palette index,
+   * only sections with mixed block states are bit-packed.
+   * Version 4 can replace the palette with references to an arena palette that is stored separately.
+   * Version 5 additionally stores the section offset so sections can be aligned to world sections,
+   * older versions store data whose sections are not aligned to the bottom of a world section like version 2.
+   * @param data the data to write
+   * @param version the format version
+   * @param arenaPalette the palette to reference and add missing states to or null to store states in the file
+   */
+  public void write(@NonNull GaiaData data, int version, @Nullable ArenaPalette arenaPalette) throws IOException {
+    if (version < GaiaMetadata.LEGACY_VERSION || version > GaiaMetadata.VERSION) {
+      throw new IOException("Unsupported format version: " + version);
+    }
     int width = data.getVector().getX();
     int height = data.getVector().getY();
     int length = data.getVector().getZ();
 
     Map<String, Tag> schematic = new HashMap<>();
+    if (version > GaiaMetadata.LEGACY_VERSION) schematic.put("Version", new IntTag(version));
     schematic.put("Width", new ShortTag((short) width));
     schematic.put("Height", new ShortTag((short) height));
     schematic.put("Length", new ShortTag((short) length));
 
+    // Palette entries that serialize to the same state share an id in the file
+    boolean shared = arenaPalette != null && version > GaiaMetadata.SECTIONS_VERSION;
     int paletteMax = 0;
-    Map<String, Integer> palette = new HashMap<>();
-    ByteArrayOutputStream buffer = new ByteArrayOutputStream(width * height * length);
-    for (int y = 0; y < height; y++) {
-      for (int z = 0; z < length; z++) {
-        for (int x = 0; x < width; x++) {
-          String blockKey = data.getDataAt(x, y, z).getAsString();
-          int blockId;
-          if (palette.containsKey(blockKey)) {
-            blockId = palette.get(blockKey);
-          } else {
-            blockId = paletteMax;
-            palette.put(blockKey, blockId);
-            paletteMax++;
-          }
-          while ((blockId & -128) != 0) {
-            buffer.write(blockId & 127 | 128);
-            blockId >>>= 7;
-          }
-          buffer.write(blockId);
-        }
+    Map<String, Integer> palette = new LinkedHashMap<>();
+    List<GaiaBlockData> entries = data.getPalette();
+    int[] remap = new int[entries.size()];
+    for (int i = 0; i < remap.length; i++) {
+      String blockKey = entries.get(i).getAsString();
+      Integer blockId = palette.get(blockKey);
+      if (blockId == null) {
+        blockId = paletteMax++;
+        palette.put(blockKey, blockId);
       }
+      remap[i] = blockId;
     }
     schematic.put("PaletteMax", new IntTag(paletteMax));
-    Map<String, Tag> paletteTag = new HashMap<>();
-    palette.forEach((key, value) -> paletteTag.put(key, new IntTag(value)));
-    schematic.put("Palette", new CompoundTag(paletteTag));
-    schematic.put("BlockData", new ByteArrayTag(buffer.toByteArray()));
+    if (shared) {
+      int[] refs = new int[paletteMax];
+      int id = 0;
+      for (String blockKey : palette.keySet()) { // Iterates in insertion order which matches the ids
+        refs[id++] = arenaPalette.getOrCreateId(blockKey);
+      }
+      schematic.put("PaletteRefs", new IntArrayTag(refs));
+    } else {
+      Map<String, Tag> paletteTag = new HashMap<>();
+      palette.forEach((key, value) -> paletteTag.put(key, new IntTag(value)));
+      schematic.put("Palette", new CompoundTag(paletteTag));
+    }
+    if (version == GaiaMetadata.LEGACY_VERSION) {
+      schematic.put("BlockData", new ByteArrayTag(encodeVarInts(data, remap)));
+    } else if (version == GaiaMetadata.PACKED_VERSION || (version < GaiaMetadata.ALIGNED_SECTIONS_VERSION && data.getSectionOffset() != 0)) {
+      schematic.put("BlockStates", new LongArrayTag(encodePacked(data, remap, paletteMax)));
+    } else {
+      int[] sections = new int[data.getSectionCount()];
+      schematic.put("BlockStates", new LongArrayTag(encodeSections(data, remap, paletteMax, sections)));
+      schematic.put("Sections", new IntArrayTag(sections));
+      if (version >= GaiaMetadata.ALIGNED_SECTIONS_VERSION) schematic.put("SectionOffset", new IntTag(data.getSectionOffset()));
+    }
     outputStream.writeNamedTag("Schematic", new CompoundTag(schematic));
   }
 
+  private static byte[] encodeVarInts(GaiaData data, int[] remap) {
+    int volume = data.getVolume();
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream(volume);
+    for (int index = 0; index < volume; index++) {
+      int blockId = remap[data.getPaletteId(index)];
+      while ((blockId & -128) != 0) {
+        buffer.write(blockId & 127 | 128);
+        blockId >>>= 7;
+      }
+      buffer.write(blockId);
+    }
+    return buffer.toByteArray();
+  }
+
+  private static long[] encodePacked(GaiaData data, int[] remap, int paletteMax) {
+    BitStorage storage = data.getStorage();
+    if (paletteMax == remap.length) return storage.getRaw(); // Ids are unchanged so the storage can be written as is
+    int volume = data.getVolume();
+    BitStorage packed = new BitStorage(BitStorage.bitsFor(paletteMax), volume);
+    for (int index = 0; index < volume; index++) {
+      packed.set(index, remap[storage.get(index)]);
+    }
+    return packed.getRaw();
+  }
+
+  /**
+   * Packs the palette indices of every mixed section back to back.
+   * @param sections filled with the palette index of each uniform section or -1 for each mixed section
+   */
+  private static long[] encodeSections(GaiaData data, int[] remap, int paletteMax, int[] sections) {
+    int mixedBlocks = 0;
+    for (int section = 0; section < sections.length; section++) {
+      int id = data.getUniformPaletteId(section);
+      sections[section] = id < 0 ? -1 : remap[id];
+      if (id < 0) mixedBlocks += data.getSectionEnd(section) - data.getSectionStart(section);
+    }
+    BitStorage storage = data.getStorage();
+    BitStorage packed = new BitStorage(BitStorage.bitsFor(paletteMax), mixedBlocks);
+    int offset = 0;
+    for (int section = 0; section < sections.length; section++) {
+      if (sections[section] >= 0) continue;
+      int end = data.getSectionEnd(section);
+      for (int index = data.getSectionStart(section); index < end; index++) {
+        packed.set(offset++, remap[storage.get(index)]);
+      }
+    }
+    return packed.getRaw();
+  }
+
   @Override
   public void close() throws IOException {
     outputStream.close();
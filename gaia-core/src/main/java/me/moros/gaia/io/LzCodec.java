@@ -0,0 +1,321 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A byte oriented LZ77 codec in the style of LZ4 that favours decoding speed over compression ratio.
+ * Data is split into blocks of up to {@link #BLOCK_SIZE} bytes that are compressed independently.
+ * Each block starts with its raw and encoded length and the stream ends with a block of length 0.
+ * Blocks that don't shrink are stored as is, which is signaled by equal lengths.
+ * An encoded block is a sequence of tokens, each followed by literals and a match except the last one:
+ * the high nibble of a token is the amount of literals and the low nibble the match length minus {@link #MIN_MATCH},
+ * a nibble of 15 is followed by bytes that are added to it until a byte is not 255.
+ * Matches are stored as a 2-byte little endian offset into the previously decoded data of the block.
+ */
+final class LzCodec {
+  static final int BLOCK_SIZE = 1 << 16;
+
+  private static final int MIN_MATCH = 4;
+  private static final int MAX_OFFSET = 65535;
+  private static final int HASH_BITS = 14;
+  private static final int SKIP_TRIGGER = 6;
+
+  private LzCodec() {
+  }
+
+  static int maxCompressedLength(int length) {
+    return length + length / 255 + 16;
+  }
+
+  /**
+   * Compresses a block.
+   * @param src the raw data
+   * @param length the amount of raw bytes
+   * @param dst the buffer to write to, at least {@link #maxCompressedLength(int)} bytes long
+   * @param table a hash table of 2^{@link #HASH_BITS} entries that is overwritten
+   * @return the amount of bytes written
+   */
+  static int compress(byte @NonNull [] src, int length, byte @NonNull [] dst, int @NonNull [] table) {
+    Arrays.fill(table, -1);
+    int anchor = 0;
+    int op = 0;
+    int i = 0;
+    int misses = 0;
+    int limit = length - MIN_MATCH;
+    while (i <= limit) {
+      int sequence = readInt(src, i);
+      int hash = (sequence * -1640531535) >>> (32 - HASH_BITS);
+      int ref = table[hash];
+      table[hash] = i;
+      if (ref < 0 || i - ref > MAX_OFFSET || readInt(src, ref) != sequence) {
+        i += 1 + (misses++ >> SKIP_TRIGGER); // Move faster through data that doesn't compress
+        continue;
+      }
+      misses = 0;
+      int matchLength = MIN_MATCH;
+      while (i + matchLength < length && src[ref + matchLength] == src[i + matchLength]) {
+        matchLength++;
+      }
+      op = writeLiterals(src, anchor, i - anchor, matchLength - MIN_MATCH, dst, op);
+      int offset = i - ref;
+      dst[op++] = (byte) offset;
+      dst[op++] = (byte) (offset >>> 8);
+      if (matchLength - MIN_MATCH >= 15) op = writeLength(matchLength - MIN_MATCH - 15, dst, op);
+      i += matchLength;
+      anchor = i;
+    }
+    return writeLiterals(src, anchor, length - anchor, 0, dst, op);
+  }
+
+  private static int writeLiterals(byte[] src, int from, int amount, int matchLength, byte[] dst, int op) {
+    dst[op++] = (byte) ((Math.min(amount, 15) << 4) | Math.min(matchLength, 15));
+    if (amount >= 15) op = writeLength(amount - 15, dst, op);
+    System.arraycopy(src, from, dst, op, amount);
+    return op + amount;
+  }
+
+  private static int writeLength(int remaining, byte[] dst, int op) {
+    while (remaining >= 255) {
+      dst[op++] = (byte) 255;
+      remaining -= 255;
+    }
+    dst[op++] = (byte) remaining;
+    return op;
+  }
+
+  /**
+   * Decompresses a block.
+   * @param src the encoded data
+   * @param length the amount of encoded bytes
+   * @param dst the buffer to write to
+   * @param rawLength the expected amount of raw bytes
+   * @throws IOException if the encoded data is invalid or doesn't decode to the expected amount of bytes
+   */
+  static void decompress(byte @NonNull [] src, int length, byte @NonNull [] dst, int rawLength) throws IOException {
+    int ip = 0;
+    int op = 0;
+    while (true) {
+      if (ip >= length) throw corrupted();
+      int token = src[ip++] & 0xFF;
+      int literals = token >>> 4;
+      if (literals == 15) {
+        int b;
+        do {
+          if (ip >= length) throw corrupted();
+          b = src[ip++] & 0xFF;
+          literals += b;
+        } while (b == 255);
+      }
+      if (literals > length - ip || literals > rawLength - op) throw corrupted();
+      copy(src, ip, dst, op, literals);
+      ip += literals;
+      op += literals;
+      if (ip == length) break; // The last token has no match
+      if (ip + 2 > length) throw corrupted();
+      int offset = (src[ip] & 0xFF) | (src[ip + 1] & 0xFF) << 8;
+      ip += 2;
+      int matchLength = token & 15;
+      if (matchLength == 15) {
+        int b;
+        do {
+          if (ip >= length) throw corrupted();
+          b = src[ip++] & 0xFF;
+          matchLength += b;
+        } while (b == 255);
+      }
+      matchLength += MIN_MATCH;
+      if (offset == 0 || offset > op || matchLength > rawLength - op) throw corrupted();
+      int from = op - offset;
+      if (offset >= matchLength) {
+        copy(dst, from, dst, op, matchLength);
+        op += matchLength;
+      } else { // Overlapping matches repeat the last offset bytes
+        for (int end = op + matchLength; op < end; op++) {
+          dst[op] = dst[from++];
+        }
+      }
+    }
+    if (op != rawLength) throw corrupted();
+  }
+
+  private static void copy(byte[] src, int from, byte[] dst, int to, int length) {
+    if (length < 32) { // Most literal runs and matches are short enough that a call to arraycopy costs more
+      for (int i = 0; i < length; i++) {
+        dst[to + i] = src[from + i];
+      }
+    } else {
+      System.arraycopy(src, from, dst, to, length);
+    }
+  }
+
+  private static int readInt(byte[] b, int i) {
+    return (b[i] & 0xFF) | (b[i + 1] & 0xFF) << 8 | (b[i + 2] & 0xFF) << 16 | (b[i + 3] & 0xFF) << 24;
+  }
+
+  private static IOException corrupted() {
+    return new IOException("Invalid compressed block (probably corrupted data)");
+  }
+
+  static final class Output extends OutputStream {
+    private final DataOutputStream out;
+    private final int[] table = new int[1 << HASH_BITS];
+    private byte[] buffer = new byte[4096];
+    private byte[] encoded = new byte[0];
+    private int position;
+    private boolean closed;
+
+    Output(@NonNull OutputStream out) {
+      this.out = new DataOutputStream(out);
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (position == buffer.length) grow();
+      buffer[position++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte @NonNull [] b, int off, int len) throws IOException {
+      while (len > 0) {
+        if (position == buffer.length) grow();
+        int amount = Math.min(len, buffer.length - position);
+        System.arraycopy(b, off, buffer, position, amount);
+        position += amount;
+        off += amount;
+        len -= amount;
+      }
+    }
+
+    private void grow() throws IOException {
+      if (buffer.length < BLOCK_SIZE) {
+        buffer = Arrays.copyOf(buffer, Math.min(BLOCK_SIZE, buffer.length * 2));
+      } else {
+        writeBlock();
+      }
+    }
+
+    private void writeBlock() throws IOException {
+      if (position == 0) return;
+      int maxLength = maxCompressedLength(position);
+      if (encoded.length < maxLength) encoded = new byte[maxCompressedLength(buffer.length)];
+      int length = compress(buffer, position, encoded, table);
+      out.writeInt(position);
+      if (length < position) {
+        out.writeInt(length);
+        out.write(encoded, 0, length);
+      } else {
+        out.writeInt(position);
+        out.write(buffer, 0, position);
+      }
+      position = 0;
+    }
+
+    @Override
+    public void flush() throws IOException {
+      writeBlock();
+      out.flush();
+    }
+
+    @Override
+    public void close() throws IOException {
+      if (closed) return;
+      closed = true;
+      try {
+        writeBlock();
+        out.writeInt(0);
+      } finally {
+        out.close();
+      }
+    }
+  }
+
+  static final class Input extends InputStream {
+    private final DataInputStream in;
+    private byte[] buffer = new byte[0];
+    private byte[] encoded = new byte[0];
+    private int position;
+    private int limit;
+    private boolean finished;
+
+    Input(@NonNull InputStream in) {
+      this.in = new DataInputStream(in);
+    }
+
+    @Override
+    public int read() throws IOException {
+      if (position == limit && !readBlock()) return -1;
+      return buffer[position++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte @NonNull [] b, int off, int len) throws IOException {
+      if (len == 0) return 0;
+      if (position == limit && !readBlock()) return -1;
+      int amount = Math.min(len, limit - position);
+      System.arraycopy(buffer, position, b, off, amount);
+      position += amount;
+      return amount;
+    }
+
+    @Override
+    public int available() {
+      return limit - position;
+    }
+
+    private boolean readBlock() throws IOException {
+      if (finished) return false;
+      int rawLength = in.readInt();
+      if (rawLength == 0) {
+        finished = true;
+        return false;
+      }
+      int length = in.readInt();
+      if (rawLength < 0 || rawLength > BLOCK_SIZE || length <= 0 || length > rawLength) {
+        throw corrupted();
+      }
+      if (buffer.length < rawLength) buffer = new byte[rawLength]; // Chunk data is usually smaller than a block
+      if (length == rawLength) {
+        in.readFully(buffer, 0, rawLength);
+      } else {
+        if (encoded.length < length) encoded = new byte[length];
+        in.readFully(encoded, 0, length);
+        decompress(encoded, length, buffer, rawLength);
+      }
+      position = 0;
+      limit = rawLength;
+      return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+      in.close();
+    }
+  }
+}
@@ -0,0 +1,209 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+
+import me.moros.gaia.api.GaiaData;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A memory-bounded cache of chunk data that has already been loaded and verified.
+ * Entries hold either the decoded {@link GaiaData} or the compressed bytes of the data file,
+ * depending on the mode of the arena they belong to. Least recently used entries are evicted
+ * once the estimated size of all entries exceeds the budget.
+ */
+public final class SnapshotCache {
+  /**
+   * What the cache holds for the chunks of an arena.
+   */
+  public enum Mode {
+    /**
+     * Nothing is cached, data is read from disk every time.
+     */
+    NONE,
+    /**
+     * The compressed file contents are cached, skipping disk access but not decoding.
+     */
+    COMPRESSED,
+    /**
+     * The decoded data is cached and shared between reverts.
+     */
+    DECODED;
+
+    public static @Nullable Mode fromName(@Nullable String name) {
+      if (name == null) return null;
+      try {
+        return valueOf(name.toUpperCase(Locale.ROOT));
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+    }
+  }
+
+  private static final long ENTRY_OVERHEAD = 64;
+
+  private final long budget;
+  private final Mode defaultMode;
+  private final Map<String, Mode> arenaModes;
+  private final LinkedHashMap<UUID, Entry> entries = new LinkedHashMap<>(64, 0.75F, true);
+
+  private long residentSize;
+  private long hits;
+  private long misses;
+  private long evictions;
+
+  /**
+   * Create a new cache.
+   * @param budget the maximum estimated size of all entries in bytes, a value of 0 disables caching
+   * @param defaultMode the mode for arenas that don't have one specified
+   * @param arenaModes modes for specific arenas mapped by arena name
+   */
+  public SnapshotCache(long budget, @NonNull Mode defaultMode, @NonNull Map<@NonNull String, @NonNull Mode> arenaModes) {
+    this.budget = Math.max(0, budget);
+    this.defaultMode = defaultMode;
+    this.arenaModes = Map.copyOf(arenaModes);
+  }
+
+  public @NonNull Mode getMode(@NonNull String arena) {
+    if (budget == 0) return Mode.NONE;
+    return arenaModes.getOrDefault(arena, defaultMode);
+  }
+
+  public synchronized @Nullable GaiaData getData(@NonNull UUID id) {
+    Entry entry = lookup(id);
+    return entry == null ? null : entry.data;
+  }
+
+  public synchronized byte @Nullable [] getCompressed(@NonNull UUID id) {
+    Entry entry = lookup(id);
+    return entry == null ? null : entry.compressed;
+  }
+
+  public synchronized void putData(@NonNull String arena, @NonNull UUID id, @NonNull GaiaData data) {
+    long size = ENTRY_OVERHEAD + data.getStorage().getRaw().length * (long) Long.BYTES + data.getPalette().size() * 8L;
+    store(id, new Entry(arena, data, null, size));
+  }
+
+  public synchronized void putCompressed(@NonNull String arena, @NonNull UUID id, byte @NonNull [] compressed) {
+    store(id, new Entry(arena, null, compressed, ENTRY_OVERHEAD + compressed.length));
+  }
+
+  public synchronized void invalidate(@NonNull UUID id) {
+    Entry entry = entries.remove(id);
+    if (entry != null) residentSize -= entry.size;
+  }
+
+  public synchronized void invalidateArena(@NonNull String arena) {
+    Iterator<Entry> it = entries.values().iterator();
+    while (it.hasNext()) {
+      Entry entry = it.next();
+      if (entry.arena.equals(arena)) {
+        residentSize -= entry.size;
+        it.remove();
+      }
+    }
+  }
+
+  public synchronized void clear() {
+    entries.clear();
+    residentSize = 0;
+  }
+
+  private @Nullable Entry lookup(UUID id) {
+    Entry entry = entries.get(id);
+    if (entry == null) {
+      misses++;
+    } else {
+      hits++;
+    }
+    return entry;
+  }
+
+  private void store(UUID id, Entry entry) {
+    invalidate(id);
+    if (entry.size > budget) return;
+    entries.put(id, entry);
+    residentSize += entry.size;
+    Iterator<Entry> it = entries.values().iterator();
+    while (residentSize > budget && it.hasNext()) {
+      residentSize -= it.next().size;
+      it.remove();
+      evictions++;
+    }
+  }
+
+  public synchronized long getHits() {
+    return hits;
+  }
+
+  public synchronized long getMisses() {
+    return misses;
+  }
+
+  public synchronized double getHitRate() {
+    long total = hits + misses;
+    return total == 0 ? 0 : hits / (double) total;
+  }
+
+  public synchronized long getEvictions() {
+    return evictions;
+  }
+
+  /**
+   * @return the estimated size of all cached entries in bytes
+   */
+  public synchronized long getResidentSize() {
+    return residentSize;
+  }
+
+  public synchronized int getSize() {
+    return entries.size();
+  }
+
+  public long getBudget() {
+    return budget;
+  }
+
+  @Override
+  public synchronized String toString() {
+    return String.format(Locale.ROOT, "%d entries, %d/%d KiB, %.1f%% hit rate, %d evictions",
+      entries.size(), residentSize / 1024, budget / 1024, getHitRate() * 100, evictions);
+  }
+
+  private static final class Entry {
+    private final String arena;
+    private final GaiaData data;
+    private final byte[] compressed;
+    private final long size;
+
+    private Entry(String arena, GaiaData data, byte[] compressed, long size) {
+      this.arena = arena;
+      this.data = data;
+      this.compressed = compressed;
+      this.size = size;
+    }
+  }
+}
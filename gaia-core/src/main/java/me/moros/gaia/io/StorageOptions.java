@@ -0,0 +1,86 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.util.Map;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Storage related settings for {@link GaiaIO}.
+ */
+public final class StorageOptions {
+  /**
+   * Whether arena data should be packed into a single {@link GaiaContainer} instead of one file per chunk.
+   */
+  public final boolean singleFile;
+  /**
+   * The amount of worker threads used to load arenas, a value of 0 uses one thread per available processor.
+   */
+  public final int loadThreads;
+  /**
+   * Whether every chunk should be hashed on startup even if it hasn't changed since it was last verified.
+   */
+  public final boolean fullVerify;
+  /**
+   * The algorithm used to checksum newly saved data. Existing data keeps the algorithm it was saved with.
+   */
+  public final ChecksumAlgorithm checksum;
+  /**
+   * The codec used to compress data of new arenas that aren't listed in {@link #arenaCompression}.
+   * Existing arenas keep the codec they were saved with.
+   */
+  public final CompressionCodec compression;
+  /**
+   * The level used by codecs that support compression levels.
+   */
+  public final int compressionLevel;
+  /**
+   * Codecs for specific new arenas mapped by arena name.
+   */
+  public final Map<String, CompressionCodec> arenaCompression;
+  /**
+   * The maximum estimated size of the {@link SnapshotCache} in bytes, a value of 0 disables it.
+   */
+  public final long cacheBudget;
+  /**
+   * The cache mode for arenas that aren't listed in {@link #arenaCacheModes}.
+   */
+  public final SnapshotCache.Mode cacheMode;
+  /**
+   * Cache modes for specific arenas mapped by arena name.
+   */
+  public final Map<String, SnapshotCache.Mode> arenaCacheModes;
+
+  public StorageOptions(boolean singleFile, int loadThreads, boolean fullVerify, @NonNull ChecksumAlgorithm checksum,
+                        @NonNull CompressionCodec compression, int compressionLevel, @NonNull Map<@NonNull String, @NonNull CompressionCodec> arenaCompression,
+                        long cacheBudget, SnapshotCache.@NonNull Mode cacheMode, @NonNull Map<@NonNull String, SnapshotCache.@NonNull Mode> arenaCacheModes) {
+    this.singleFile = singleFile;
+    this.loadThreads = Math.max(0, loadThreads);
+    this.fullVerify = fullVerify;
+    this.checksum = checksum;
+    this.compression = compression;
+    this.compressionLevel = CompressionCodec.isValidLevel(compressionLevel) ? compressionLevel : CompressionCodec.DEFAULT_LEVEL;
+    this.arenaCompression = Map.copyOf(arenaCompression);
+    this.cacheBudget = Math.max(0, cacheBudget);
+    this.cacheMode = cacheMode;
+    this.arenaCacheModes = Map.copyOf(arenaCacheModes);
+  }
+}
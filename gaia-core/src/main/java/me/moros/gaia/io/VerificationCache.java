@@ -0,0 +1,115 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonParseException;
+import com.google.gson.reflect.TypeToken;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A persisted record of data that has already passed checksum verification.
+ * Entries are keyed by source and remain valid as long as the size and modification time
+ * of the underlying file don't change. Only entries used since the cache was loaded are saved.
+ */
+final class VerificationCache {
+  private static final Type TYPE = new TypeToken<Map<String, Entry>>() {
+  }.getType();
+
+  private final Path file;
+  private final Gson gson;
+  private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+  private final Set<String> used = ConcurrentHashMap.newKeySet();
+
+  VerificationCache(@NonNull Path file, @NonNull Gson gson) {
+    this.file = file;
+    this.gson = gson;
+  }
+
+  void load() {
+    entries.clear();
+    used.clear();
+    if (!Files.exists(file)) return;
+    try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+      Map<String, Entry> loaded = gson.fromJson(reader, TYPE);
+      if (loaded != null) {
+        loaded.forEach((k, v) -> {
+          if (k != null && v != null && v.hash != null) entries.put(k, v);
+        });
+      }
+    } catch (IOException | JsonParseException e) {
+      e.printStackTrace();
+    }
+  }
+
+  synchronized void save() {
+    entries.keySet().retainAll(used);
+    Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+    try {
+      try (Writer writer = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+        gson.toJson(entries, TYPE, writer);
+      }
+      Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      e.printStackTrace();
+    }
+  }
+
+  boolean isVerified(@NonNull String key, @NonNull BasicFileAttributes attributes, @NonNull String hash) {
+    Entry entry = entries.get(key);
+    if (entry == null) return false;
+    used.add(key);
+    return entry.size == attributes.size() && entry.modified == attributes.lastModifiedTime().toMillis() && entry.hash.equals(hash);
+  }
+
+  void markVerified(@NonNull String key, @NonNull BasicFileAttributes attributes, @NonNull String hash) {
+    entries.put(key, new Entry(attributes.size(), attributes.lastModifiedTime().toMillis(), hash));
+    used.add(key);
+  }
+
+  void invalidate(@NonNull String key) {
+    entries.remove(key);
+  }
+
+  private static final class Entry {
+    private final long size;
+    private final long modified;
+    private final String hash;
+
+    private Entry(long size, long modified, String hash) {
+      this.size = size;
+      this.modified = modified;
+      this.hash = hash;
+    }
+  }
+}
@@ -73,11 +73,32 @@ public interface Message {
   Args2<Component, String> FINISHED_REVERT = (arena, time) -> brand(translatable("gaia.command.revert.finished", GREEN)
     .args(arena, text(time, GREEN)));
 
+  Args1<Component> REVERT_FAIL = arena -> brand(translatable("gaia.command.revert.fail", RED)
+    .args(arena));
+
+  Args2<String, String> REVERT_SUMMARY = (changed, skipped) -> brand(translatable("gaia.command.revert.summary", DARK_AQUA)
+    .args(text(changed, GREEN), text(skipped, GREEN)));
+
   Args1<Component> CANCEL_FAIL = arena -> brand(translatable("gaia.command.cancel.fail", RED)
     .args(arena));
   Args1<Component> CANCEL_SUCCESS = arena -> brand(translatable("gaia.command.cancel.success", YELLOW)
     .args(arena));
 
+  Args0 QUEUE_EMPTY = () -> brand(translatable("gaia.command.queue.empty", YELLOW));
+  Args1<String> QUEUE_HEADER = throughput -> brand(translatable("gaia.command.queue.header", DARK_AQUA)
+    .args(text(throughput, GREEN)));
+  Args2<String, String> QUEUE_RUNNING = (arena, eta) -> translatable("gaia.command.queue.running", DARK_AQUA)
+    .args(text(arena, GOLD), text(eta, GREEN));
+  Args3<String, String, String> QUEUE_ENTRY = (position, arena, eta) -> translatable("gaia.command.queue.entry", DARK_AQUA)
+    .args(text(position, GREEN), text(arena, GOLD), text(eta, GREEN));
+
+  Args1<Component> VERIFY_START = arena -> brand(translatable("gaia.command.verify.start", YELLOW)
+    .args(arena));
+  Args1<Component> VERIFY_SUCCESS = arena -> brand(translatable("gaia.command.verify.success", GREEN)
+    .args(arena));
+  Args2<Component, String> VERIFY_FAIL = (arena, amount) -> brand(translatable("gaia.command.verify.fail", RED)
+    .args(arena, text(amount, GOLD)));
+
   Args2<String, String> VERSION_COMMAND_HOVER = (author, link) -> translatable("gaia.command.version.hover", DARK_AQUA)
     .args(text(author, GREEN), text(link, GREEN));
 
@@ -108,4 +129,12 @@ public interface Message {
       user.sendMessage(build(arg0, arg1));
     }
   }
+
+  interface Args3<A0, A1, A2> {
+    @NonNull Component build(@NonNull A0 arg0, @NonNull A1 arg1, @NonNull A2 arg2);
+
+    default void send(@NonNull GaiaUser user, @NonNull A0 arg0, @NonNull A1 arg1, @NonNull A2 arg2) {
+      user.sendMessage(build(arg0, arg1, arg2));
+    }
+  }
 }
@@ -20,13 +20,39 @@
 package me.moros.gaia.platform;
 
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
 
+import me.moros.gaia.api.GaiaData;
+import me.moros.gaia.api.GaiaRegion;
 import me.moros.gaia.api.GaiaVector;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 public interface GaiaWorld {
   @NonNull GaiaBlock getBlockAt(GaiaVector v);
 
+  /**
+   * Reads every block of a region into the passed data.
+   * Chunks are loaded and captured on the main thread while block data is extracted on a worker thread.
+   * @param region the region to read, its minimum point becomes the origin of the data
+   * @param data the data to fill, its dimensions must match the region
+   * @return a future with the passed data that completes once every block has been read
+   */
+  @NonNull CompletableFuture<@NonNull GaiaData> readBlocks(@NonNull GaiaRegion region, @NonNull GaiaData data);
+
+  /**
+   * Writes a batch of blocks of the passed data into the world, one block at a time.
+   * Batching saves resolving the position, chunk and block state of each block separately, it does not
+   * replace per block updates, lighting or chunk resends of the platform.
+   * Must be called from the main thread.
+   * @param region the region to write to, its minimum point is the origin of the data
+   * @param data the block data, its dimensions must match the region
+   * @param indices the block indices as calculated by {@link GaiaData#index(int, int, int)}
+   * @param from the first element of indices to write, inclusive
+   * @param to the last element of indices to write, exclusive
+   * @param physics whether to apply physics for every written block
+   */
+  void setBlockBatch(@NonNull GaiaRegion region, @NonNull GaiaData data, int @NonNull [] indices, int from, int to, boolean physics);
+
   @NonNull String getName();
 
   @NonNull UUID getUID();
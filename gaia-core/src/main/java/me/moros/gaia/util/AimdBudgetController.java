@@ -0,0 +1,89 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+/**
+ * A controller that uses additive increase and multiplicative decrease.
+ * Tick durations are smoothed with an exponential moving average. While the average stays below the target
+ * the budget grows by a fixed amount every tick. Once it exceeds the target the budget is scaled down,
+ * which backs off quickly when the server is struggling and recovers gradually when it's idle.
+ */
+public final class AimdBudgetController implements BudgetController {
+  private static final double SMOOTHING = 0.2;
+
+  private final long min;
+  private final long max;
+  private final double targetMillis;
+  private final long increase;
+  private final double decrease;
+
+  private long budget;
+  private double averageMillis;
+
+  /**
+   * Create a new controller.
+   * @param min the minimum budget in nanoseconds
+   * @param max the maximum budget in nanoseconds
+   * @param initial the starting budget in nanoseconds
+   * @param targetMillis the tick duration to stay below in milliseconds
+   * @param increase the amount of nanoseconds to add to the budget per tick while below the target
+   * @param decrease the factor to multiply the budget with while above the target, between 0 and 1 exclusive
+   */
+  public AimdBudgetController(long min, long max, long initial, double targetMillis, long increase, double decrease) {
+    if (min < 1 || max < min) throw new IllegalArgumentException("Invalid budget range: " + min + " - " + max);
+    if (targetMillis <= 0) throw new IllegalArgumentException("Invalid target: " + targetMillis);
+    if (increase < 1) throw new IllegalArgumentException("Invalid increase: " + increase);
+    if (decrease <= 0 || decrease >= 1) throw new IllegalArgumentException("Invalid decrease factor: " + decrease);
+    this.min = min;
+    this.max = max;
+    this.targetMillis = targetMillis;
+    this.increase = increase;
+    this.decrease = decrease;
+    budget = clamp(initial);
+    averageMillis = 0;
+  }
+
+  @Override
+  public long getBudget() {
+    return budget;
+  }
+
+  @Override
+  public void onTickEnd(double tickMillis) {
+    if (!(tickMillis >= 0)) return; // Ignore invalid measurements
+    averageMillis += SMOOTHING * (tickMillis - averageMillis);
+    if (averageMillis > targetMillis) {
+      budget = clamp((long) (budget * decrease));
+    } else {
+      budget = clamp(budget + increase);
+    }
+  }
+
+  /**
+   * @return the smoothed tick duration in milliseconds
+   */
+  public double getAverageMillis() {
+    return averageMillis;
+  }
+
+  private long clamp(long value) {
+    return Math.max(min, Math.min(max, value));
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A fixed size array of unsigned integers packed into longs using a constant amount of bits per entry.
+ * Entries never span across two words so reading one is a single shift and mask.
+ */
+public final class BitStorage {
+  private final long[] data;
+  private final int bits;
+  private final int size;
+  private final int valuesPerLong;
+  private final long mask;
+
+  public BitStorage(int bits, int size) {
+    this(bits, size, null);
+  }
+
+  public BitStorage(int bits, int size, long @Nullable [] data) {
+    if (bits < 1 || bits > 32) throw new IllegalArgumentException("Invalid amount of bits: " + bits);
+    if (size < 0) throw new IllegalArgumentException("Invalid size: " + size);
+    this.bits = bits;
+    this.size = size;
+    valuesPerLong = 64 / bits;
+    mask = (1L << bits) - 1L;
+    int length = (size + valuesPerLong - 1) / valuesPerLong;
+    if (data == null) {
+      this.data = new long[length];
+    } else {
+      if (data.length != length) {
+        throw new IllegalArgumentException("Invalid data length: expected " + length + " but got " + data.length);
+      }
+      this.data = data;
+    }
+  }
+
+  public int get(int index) {
+    int word = index / valuesPerLong;
+    int offset = (index - word * valuesPerLong) * bits;
+    return (int) ((data[word] >>> offset) & mask);
+  }
+
+  public void set(int index, int value) {
+    int word = index / valuesPerLong;
+    int offset = (index - word * valuesPerLong) * bits;
+    data[word] = (data[word] & ~(mask << offset)) | ((value & mask) << offset);
+  }
+
+  public int getBits() {
+    return bits;
+  }
+
+  public int getSize() {
+    return size;
+  }
+
+  public long @NonNull [] getRaw() {
+    return data;
+  }
+
+  /**
+   * Copies all entries into a new storage with a different amount of bits per entry.
+   * @param newBits the amount of bits per entry for the new storage
+   * @return the new storage
+   */
+  public @NonNull BitStorage resize(int newBits) {
+    BitStorage result = new BitStorage(newBits, size);
+    for (int i = 0; i < size; i++) {
+      result.set(i, get(i));
+    }
+    return result;
+  }
+
+  /**
+   * Calculates the minimum amount of bits needed to store every index of a palette.
+   * @param paletteSize the amount of palette entries
+   * @return the amount of bits, at least 1
+   */
+  public static int bitsFor(int paletteSize) {
+    return paletteSize <= 2 ? 1 : 32 - Integer.numberOfLeadingZeros(paletteSize - 1);
+  }
+}
@@ -0,0 +1,92 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+import me.moros.gaia.api.GaiaVector;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A cursor over the blocks of a cuboid in y, z, x order, which matches the indices of {@link me.moros.gaia.api.GaiaData}.
+ * The relative coordinates of the current block are tracked alongside its index so advancing never allocates.
+ */
+public final class BlockCursor implements PrimitiveIterator.OfInt {
+  private final int width;
+  private final int length;
+  private final int volume;
+
+  private int index = -1;
+  private int x = -1;
+  private int y;
+  private int z;
+
+  /**
+   * Create a new cursor.
+   * @param dimensions the dimensions of the cuboid
+   */
+  public BlockCursor(@NonNull GaiaVector dimensions) {
+    width = dimensions.getX();
+    length = dimensions.getZ();
+    volume = width * dimensions.getY() * length;
+  }
+
+  @Override
+  public boolean hasNext() {
+    return index + 1 < volume;
+  }
+
+  /**
+   * Advances the cursor to the next block.
+   * @return the index of the next block
+   */
+  @Override
+  public int nextInt() {
+    if (!hasNext()) throw new NoSuchElementException();
+    if (++x == width) {
+      x = 0;
+      if (++z == length) {
+        z = 0;
+        y++;
+      }
+    }
+    return ++index;
+  }
+
+  /**
+   * @return the index of the current block or -1 if the cursor has not been advanced yet
+   */
+  public int getIndex() {
+    return index;
+  }
+
+  public int getX() {
+    return x;
+  }
+
+  public int getY() {
+    return y;
+  }
+
+  public int getZ() {
+    return z;
+  }
+}
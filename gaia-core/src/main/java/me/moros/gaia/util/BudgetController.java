@@ -0,0 +1,57 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Decides how much time a {@link BudgetScheduler} may spend per tick based on how long recent ticks took.
+ */
+public interface BudgetController {
+  /**
+   * @return the current budget per tick in nanoseconds
+   */
+  long getBudget();
+
+  /**
+   * Called once at the end of every server tick.
+   * @param tickMillis how long the tick took in milliseconds
+   */
+  void onTickEnd(double tickMillis);
+
+  /**
+   * Create a controller that ignores server load.
+   * @param budget the budget per tick in nanoseconds
+   * @return the controller
+   */
+  static @NonNull BudgetController fixed(long budget) {
+    if (budget < 1) throw new IllegalArgumentException("Invalid budget: " + budget);
+    return new BudgetController() {
+      @Override
+      public long getBudget() {
+        return budget;
+      }
+
+      @Override
+      public void onTickEnd(double tickMillis) {
+      }
+    };
+  }
+}
@@ -0,0 +1,219 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.util.ArrayDeque;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Runs queued work against a time budget per tick, as decided by a {@link BudgetController}.
+ * Tasks are processed round-robin in small batches until the budget of the current tick is spent
+ * and the remaining work carries over to the next tick. A minimum amount of steps is always performed
+ * per tick, regardless of the budget, so work keeps progressing even when the server is under load.
+ * Tasks can be submitted from any thread but {@link #tick()} must always be called from the same thread.
+ */
+public final class BudgetScheduler {
+  private static final int BATCH_SIZE = 32;
+  private static final double SMOOTHING = 0.1;
+
+  /**
+   * A unit of work that is split into small steps.
+   */
+  @FunctionalInterface
+  public interface Task {
+    /**
+     * Performs a small amount of work, such as processing a single block.
+     * @return true if there is more work left, false if the task is complete
+     */
+    boolean step();
+
+    /**
+     * Called instead of {@link #step()} completing normally if it throws, after which the task is dropped.
+     * @param e the exception thrown by the step
+     */
+    default void onFailure(@NonNull RuntimeException e) {
+      e.printStackTrace();
+    }
+  }
+
+  private static final class Entry {
+    private final Task task;
+    private final int steps;
+
+    private Entry(Task task, int weight) {
+      this.task = task;
+      this.steps = BATCH_SIZE * weight;
+    }
+  }
+
+  private final Queue<Entry> submitted = new ConcurrentLinkedQueue<>();
+  private final ArrayDeque<Entry> active = new ArrayDeque<>();
+  private final BudgetController controller;
+  private final int minSteps;
+  private final LongSupplier clock;
+
+  private long lastBudget;
+  private long lastUsed;
+  private int lastSteps;
+  private double averageUsage;
+
+  /**
+   * Create a new scheduler with a fixed budget.
+   * @param budget the maximum amount of time to spend per tick in nanoseconds
+   */
+  public BudgetScheduler(long budget) {
+    this(budget, System::nanoTime);
+  }
+
+  public BudgetScheduler(long budget, @NonNull LongSupplier clock) {
+    this(BudgetController.fixed(budget), 0, clock);
+  }
+
+  /**
+   * Create a new scheduler.
+   * @param controller the controller that decides the budget per tick
+   * @param minSteps the amount of steps to perform per tick even if the budget is exceeded
+   */
+  public BudgetScheduler(@NonNull BudgetController controller, int minSteps) {
+    this(controller, minSteps, System::nanoTime);
+  }
+
+  public BudgetScheduler(@NonNull BudgetController controller, int minSteps, @NonNull LongSupplier clock) {
+    this.controller = controller;
+    this.minSteps = Math.max(0, minSteps);
+    this.clock = clock;
+    lastBudget = controller.getBudget();
+  }
+
+  public void submit(@NonNull Task task) {
+    submit(task, 1);
+  }
+
+  /**
+   * Submits a task that performs a batch of steps per turn for every unit of weight,
+   * so each task receives a share of the budget proportional to its weight.
+   * @param task the task to submit
+   * @param weight the relative share of the budget for this task
+   */
+  public void submit(@NonNull Task task, int weight) {
+    submitted.add(new Entry(task, Math.max(1, weight)));
+  }
+
+  /**
+   * Processes queued tasks until either all of them are complete or the budget for this tick is spent.
+   */
+  public void tick() {
+    lastBudget = controller.getBudget();
+    lastSteps = 0;
+    Entry entry;
+    while ((entry = submitted.poll()) != null) {
+      active.add(entry);
+    }
+    if (active.isEmpty()) {
+      record(0);
+      return;
+    }
+    final long start = clock.getAsLong();
+    final long deadline = start + lastBudget;
+    long now = start;
+    while ((now < deadline || lastSteps < minSteps) && (entry = active.poll()) != null) {
+      if (runBatch(entry)) active.add(entry);
+      now = clock.getAsLong();
+    }
+    record(now - start);
+  }
+
+  /**
+   * Passes the duration of a server tick to the controller.
+   * @param tickMillis how long the tick took in milliseconds
+   */
+  public void onTickEnd(double tickMillis) {
+    controller.onTickEnd(tickMillis);
+  }
+
+  private boolean runBatch(Entry entry) {
+    try {
+      for (int i = 0; i < entry.steps; i++) {
+        lastSteps++;
+        if (!entry.task.step()) return false;
+      }
+      return true;
+    } catch (RuntimeException e) {
+      try {
+        entry.task.onFailure(e);
+      } catch (RuntimeException suppressed) {
+        e.addSuppressed(suppressed);
+        e.printStackTrace();
+      }
+      return false;
+    }
+  }
+
+  private void record(long used) {
+    lastUsed = used;
+    averageUsage += SMOOTHING * (used / (double) lastBudget - averageUsage);
+  }
+
+  /**
+   * @return the budget of the last tick in nanoseconds
+   */
+  public long getBudget() {
+    return lastBudget;
+  }
+
+  /**
+   * @return the amount of steps performed during the last tick
+   */
+  public int getLastSteps() {
+    return lastSteps;
+  }
+
+  /**
+   * @return the time spent during the last tick in nanoseconds
+   */
+  public long getLastUsed() {
+    return lastUsed;
+  }
+
+  /**
+   * @return an exponential moving average of the fraction of the budget used per tick
+   */
+  public double getAverageUsage() {
+    return averageUsage;
+  }
+
+  /**
+   * @return the amount of tasks that are not complete yet
+   */
+  public int getPending() {
+    return active.size() + submitted.size();
+  }
+
+  @Override
+  public String toString() {
+    return String.format(Locale.ROOT, "%d pending tasks, last tick %.2f/%.2f ms, %.1f%% average budget usage",
+      getPending(), lastUsed / 1e6, lastBudget / 1e6, averageUsage * 100);
+  }
+}
@@ -0,0 +1,126 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.LongConsumer;
+
+import me.moros.gaia.api.Coordinates;
+import me.moros.gaia.api.GaiaRegion;
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A spatial index of regions per world, keyed by the chunks each region covers.
+ * Point queries only check the regions in a single chunk and overlap checks only visit the chunks
+ * covered by the queried region, regardless of how many regions are indexed.
+ * @param <T> the type of values that are indexed
+ */
+public final class ChunkIndex<T> {
+  private static final class Entry<T> {
+    private final GaiaRegion region;
+    private final T value;
+
+    private Entry(GaiaRegion region, T value) {
+      this.region = region;
+      this.value = value;
+    }
+  }
+
+  private final Map<UUID, LongObjectMap<List<Entry<T>>>> worlds = new HashMap<>();
+
+  public synchronized void add(@NonNull UUID world, @NonNull GaiaRegion region, @NonNull T value) {
+    final LongObjectMap<List<Entry<T>>> chunks = worlds.computeIfAbsent(world, k -> new LongObjectMap<>());
+    final Entry<T> entry = new Entry<>(region, value);
+    forEachChunk(region, key -> chunks.computeIfAbsent(key, k -> new ArrayList<>(1)).add(entry));
+  }
+
+  public synchronized void remove(@NonNull UUID world, @NonNull GaiaRegion region, @NonNull T value) {
+    final LongObjectMap<List<Entry<T>>> chunks = worlds.get(world);
+    if (chunks == null) return;
+    forEachChunk(region, key -> {
+      List<Entry<T>> entries = chunks.get(key);
+      if (entries == null) return;
+      entries.removeIf(e -> e.value.equals(value));
+      if (entries.isEmpty()) chunks.remove(key);
+    });
+    if (chunks.isEmpty()) worlds.remove(world);
+  }
+
+  /**
+   * Finds the value whose region contains the specified position.
+   * @param world the world uid
+   * @param x the x coordinate
+   * @param y the y coordinate
+   * @param z the z coordinate
+   * @return the value or null if no indexed region contains the position
+   */
+  public synchronized @Nullable T find(@NonNull UUID world, int x, int y, int z) {
+    final LongObjectMap<List<Entry<T>>> chunks = worlds.get(world);
+    if (chunks == null) return null;
+    final List<Entry<T>> entries = chunks.get(Coordinates.chunkAt(x, z));
+    if (entries == null) return null;
+    for (Entry<T> entry : entries) {
+      if (entry.region.contains(x, y, z)) return entry.value;
+    }
+    return null;
+  }
+
+  /**
+   * Checks if any indexed region intersects the specified region.
+   * @param world the world uid
+   * @param region the region to check
+   * @return true if there is an intersection, false otherwise
+   */
+  public synchronized boolean intersects(@NonNull UUID world, @NonNull GaiaRegion region) {
+    final LongObjectMap<List<Entry<T>>> chunks = worlds.get(world);
+    if (chunks == null) return false;
+    final int maxX = region.getMaximumPoint().getX() >> 4;
+    final int maxZ = region.getMaximumPoint().getZ() >> 4;
+    for (int cx = region.getMinimumPoint().getX() >> 4; cx <= maxX; cx++) {
+      for (int cz = region.getMinimumPoint().getZ() >> 4; cz <= maxZ; cz++) {
+        List<Entry<T>> entries = chunks.get(Coordinates.chunk(cx, cz));
+        if (entries == null) continue;
+        for (Entry<T> entry : entries) {
+          if (entry.region.intersects(region)) return true;
+        }
+      }
+    }
+    return false;
+  }
+
+  public synchronized void clear() {
+    worlds.clear();
+  }
+
+  private static void forEachChunk(GaiaRegion region, LongConsumer action) {
+    final int maxX = region.getMaximumPoint().getX() >> 4;
+    final int maxZ = region.getMaximumPoint().getZ() >> 4;
+    for (int cx = region.getMinimumPoint().getX() >> 4; cx <= maxX; cx++) {
+      for (int cz = region.getMinimumPoint().getZ() >> 4; cz <= maxZ; cz++) {
+        action.accept(Coordinates.chunk(cx, cz));
+      }
+    }
+  }
+}
@@ -0,0 +1,131 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.util.stream.IntStream;
+
+import me.moros.gaia.api.Coordinates;
+import me.moros.gaia.api.GaiaRegion;
+import me.moros.gaia.api.GaiaVector;
+import me.moros.gaia.util.functional.IntTriConsumer;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A set of block positions stored as one 4096 bit bitset per 16x16x16 chunk section.
+ * Once the capacity is exceeded the set is marked as overflowed and no longer holds positions,
+ * as it can't be used to describe every change anymore. This class is not thread-safe.
+ */
+public final class DirtyBlockSet {
+  private static final int SECTION_WORDS = 4096 / Long.SIZE;
+
+  private final LongObjectMap<long[]> sections = new LongObjectMap<>();
+  private final int capacity;
+  private int size;
+  private boolean overflowed;
+
+  public DirtyBlockSet(int capacity) {
+    if (capacity < 1) throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    this.capacity = capacity;
+  }
+
+  /**
+   * Adds a position to this set.
+   * @return false if this set has overflowed, true otherwise
+   */
+  public boolean add(int x, int y, int z) {
+    if (overflowed) return false;
+    long[] bits = sections.computeIfAbsent(Coordinates.sectionAt(x, y, z), k -> new long[SECTION_WORDS]);
+    int index = sectionIndex(x, y, z);
+    long mask = 1L << index;
+    if ((bits[index >>> 6] & mask) != 0) return true;
+    if (size >= capacity) {
+      overflowed = true;
+      sections.clear();
+      return false;
+    }
+    bits[index >>> 6] |= mask;
+    size++;
+    return true;
+  }
+
+  public boolean contains(int x, int y, int z) {
+    long[] bits = sections.get(Coordinates.sectionAt(x, y, z));
+    if (bits == null) return false;
+    int index = sectionIndex(x, y, z);
+    return (bits[index >>> 6] & (1L << index)) != 0;
+  }
+
+  public boolean isOverflowed() {
+    return overflowed;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Collects every position in this set that is contained within the specified region as block indices
+   * in the y, z, x order used by {@link me.moros.gaia.api.GaiaData}.
+   * @param region the region to check
+   * @return the indices of the positions relative to the region, in ascending order
+   */
+  public int @NonNull [] getIndices(@NonNull GaiaRegion region) {
+    final int width = region.getVector().getX();
+    final int length = region.getVector().getZ();
+    final IntStream.Builder result = IntStream.builder();
+    forEachIn(region, (x, y, z) -> result.add((y * length + z) * width + x));
+    return result.build().sorted().toArray();
+  }
+
+  private void forEachIn(GaiaRegion region, IntTriConsumer action) {
+    if (sections.isEmpty()) return;
+    final GaiaVector min = region.getMinimumPoint();
+    final GaiaVector max = region.getMaximumPoint();
+    for (int sx = min.getX() >> 4; sx <= max.getX() >> 4; sx++) {
+      for (int sz = min.getZ() >> 4; sz <= max.getZ() >> 4; sz++) {
+        for (int sy = min.getY() >> 4; sy <= max.getY() >> 4; sy++) {
+          long[] bits = sections.get(Coordinates.section(sx, sy, sz));
+          if (bits == null) continue;
+          for (int word = 0; word < SECTION_WORDS; word++) {
+            long value = bits[word];
+            while (value != 0) {
+              int index = (word << 6) | Long.numberOfTrailingZeros(value);
+              value &= value - 1;
+              int x = (sx << 4) | (index & 15);
+              int y = (sy << 4) | (index >>> 8);
+              int z = (sz << 4) | ((index >>> 4) & 15);
+              if (x >= min.getX() && x <= max.getX() && y >= min.getY() && y <= max.getY() && z >= min.getZ() && z <= max.getZ()) {
+                action.accept(x - min.getX(), y - min.getY(), z - min.getZ());
+              }
+            }
+          }
+        }
+      }
+    }
+  }
+
+  private static int sectionIndex(int x, int y, int z) {
+    return ((y & 15) << 8) | ((z & 15) << 4) | (x & 15);
+  }
+}
@@ -0,0 +1,82 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A thread-safe cache that maps keys to shared immutable values.
+ * Once the capacity is reached new values are still computed but no longer retained.
+ * @param <K> the key type
+ * @param <V> the value type
+ */
+public final class InternCache<K, V> {
+  private final Map<K, V> cache;
+  private final int capacity;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+
+  public InternCache(int capacity) {
+    if (capacity < 1) throw new IllegalArgumentException("Invalid capacity: " + capacity);
+    this.capacity = capacity;
+    cache = new ConcurrentHashMap<>();
+  }
+
+  public @NonNull V get(@NonNull K key, @NonNull Function<@NonNull K, @NonNull V> loader) {
+    V value = cache.get(key);
+    if (value != null) {
+      hits.increment();
+      return value;
+    }
+    misses.increment();
+    value = loader.apply(key);
+    if (cache.size() < capacity) {
+      V previous = cache.putIfAbsent(key, value);
+      if (previous != null) return previous;
+    }
+    return value;
+  }
+
+  public long getHits() {
+    return hits.sum();
+  }
+
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  public int getSize() {
+    return cache.size();
+  }
+
+  public void clear() {
+    cache.clear();
+  }
+
+  @Override
+  public String toString() {
+    return getSize() + " entries, " + getHits() + " hits, " + getMisses() + " misses";
+  }
+}
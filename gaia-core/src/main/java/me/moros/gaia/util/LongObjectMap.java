@@ -0,0 +1,179 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.util.Arrays;
+import java.util.function.LongFunction;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
+
+/**
+ * A hash map with primitive long keys that uses open addressing with linear probing,
+ * so lookups and insertions of existing keys don't allocate. Null values are not supported.
+ * This class is not thread-safe.
+ * @param <V> the value type
+ */
+public final class LongObjectMap<V> {
+  private static final int MIN_CAPACITY = 16;
+
+  private long[] keys;
+  private Object[] values;
+  private int mask;
+  private int size;
+
+  public LongObjectMap() {
+    this(MIN_CAPACITY);
+  }
+
+  /**
+   * @param expected the amount of entries to allocate space for
+   */
+  public LongObjectMap(int expected) {
+    allocate(tableSize(expected));
+  }
+
+  public @Nullable V get(long key) {
+    int slot = find(key);
+    return slot < 0 ? null : value(slot);
+  }
+
+  public boolean containsKey(long key) {
+    return find(key) >= 0;
+  }
+
+  /**
+   * @return the previous value or null if there was none
+   */
+  public @Nullable V put(long key, @NonNull V value) {
+    int slot = find(key);
+    if (slot >= 0) {
+      V previous = value(slot);
+      values[slot] = value;
+      return previous;
+    }
+    insert(key, value);
+    return null;
+  }
+
+  public @NonNull V computeIfAbsent(long key, @NonNull LongFunction<? extends @NonNull V> mapping) {
+    int slot = find(key);
+    if (slot >= 0) return value(slot);
+    V value = mapping.apply(key);
+    insert(key, value);
+    return value;
+  }
+
+  /**
+   * @return the removed value or null if there was none
+   */
+  public @Nullable V remove(long key) {
+    int slot = find(key);
+    if (slot < 0) return null;
+    V previous = value(slot);
+    // Shift following entries of the same probe sequence back so lookups don't stop at the gap
+    int gap = slot;
+    int next = (gap + 1) & mask;
+    while (values[next] != null) {
+      int home = hash(keys[next]) & mask;
+      if (((next - home) & mask) >= ((next - gap) & mask)) {
+        keys[gap] = keys[next];
+        values[gap] = values[next];
+        gap = next;
+      }
+      next = (next + 1) & mask;
+    }
+    values[gap] = null;
+    size--;
+    return previous;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  public void clear() {
+    Arrays.fill(values, null);
+    size = 0;
+  }
+
+  private int find(long key) {
+    int slot = hash(key) & mask;
+    while (values[slot] != null) {
+      if (keys[slot] == key) return slot;
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  private void insert(long key, V value) {
+    if (size + 1 > (values.length >> 1) + (values.length >> 2)) resize(); // Keep the load factor below 0.75
+    int slot = hash(key) & mask;
+    while (values[slot] != null) {
+      slot = (slot + 1) & mask;
+    }
+    keys[slot] = key;
+    values[slot] = value;
+    size++;
+  }
+
+  private void resize() {
+    long[] oldKeys = keys;
+    Object[] oldValues = values;
+    allocate(values.length << 1);
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldValues[i] == null) continue;
+      int slot = hash(oldKeys[i]) & mask;
+      while (values[slot] != null) {
+        slot = (slot + 1) & mask;
+      }
+      keys[slot] = oldKeys[i];
+      values[slot] = oldValues[i];
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new Object[capacity];
+    mask = capacity - 1;
+  }
+
+  @SuppressWarnings("unchecked")
+  private V value(int slot) {
+    return (V) values[slot];
+  }
+
+  private static int tableSize(int expected) {
+    int capacity = MIN_CAPACITY;
+    while (capacity < 1 << 30 && capacity * 3 / 4 < expected) {
+      capacity <<= 1;
+    }
+    return capacity;
+  }
+
+  private static int hash(long key) {
+    long h = key * 0x9E3779B97F4A7C15L; // Packed coordinates are spread so neighbouring keys don't cluster
+    return (int) (h ^ (h >>> 32));
+  }
+}
@@ -0,0 +1,291 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.IntFunction;
+import java.util.function.LongSupplier;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * A shared queue for reverting arenas. Only a limited amount of jobs run at once, the rest wait in order of priority.
+ * Jobs with the same priority that are small enough get a shortest job first boost, otherwise they are served in order
+ * of submission. The priority of a job also decides its weight, which is its share of the tick budget while running.
+ * Completion times are estimated from the throughput measured on previous jobs.
+ */
+public final class RevertQueue {
+  public static final int MAX_WEIGHT = 4;
+  private static final double SMOOTHING = 0.3;
+
+  /**
+   * A snapshot of a queued or running job.
+   */
+  public static final class Entry {
+    private final String name;
+    private final int position;
+    private final boolean running;
+    private final long blocks;
+    private final long eta;
+
+    private Entry(String name, int position, boolean running, long blocks, long eta) {
+      this.name = name;
+      this.position = position;
+      this.running = running;
+      this.blocks = blocks;
+      this.eta = eta;
+    }
+
+    public @NonNull String getName() {
+      return name;
+    }
+
+    /**
+     * @return the position in the queue, 0 for running jobs
+     */
+    public int getPosition() {
+      return position;
+    }
+
+    public boolean isRunning() {
+      return running;
+    }
+
+    /**
+     * @return the estimated amount of blocks of this job
+     */
+    public long getBlocks() {
+      return blocks;
+    }
+
+    /**
+     * @return the estimated time until this job completes in milliseconds or -1 if it is unknown
+     */
+    public long getEta() {
+      return eta;
+    }
+  }
+
+  private final class Job {
+    private final String name;
+    private final int priority;
+    private final long blocks;
+    private final long sequence;
+    private final IntFunction<CompletableFuture<Void>> start;
+    private final CompletableFuture<Void> result = new CompletableFuture<>();
+    private CompletableFuture<Void> started;
+    private long startTime;
+
+    private Job(String name, int priority, long blocks, long sequence, IntFunction<CompletableFuture<Void>> start) {
+      this.name = name;
+      this.priority = priority;
+      this.blocks = blocks;
+      this.sequence = sequence;
+      this.start = start;
+    }
+
+    private boolean isSmall() {
+      return blocks <= smallJobBlocks;
+    }
+  }
+
+  private final int concurrency;
+  private final long smallJobBlocks;
+  private final Executor executor;
+  private final LongSupplier clock;
+  private final PriorityQueue<Job> queued;
+  private final List<Job> running = new ArrayList<>();
+
+  private long sequence;
+  private double throughput;
+
+  /**
+   * Create a new queue.
+   * @param concurrency the maximum amount of jobs to run at once
+   * @param smallJobBlocks jobs with at most this many blocks are moved ahead of larger jobs with the same priority
+   * @param executor the executor that jobs are started on
+   * @param clock the clock in milliseconds that is used to measure throughput
+   */
+  public RevertQueue(int concurrency, long smallJobBlocks, @NonNull Executor executor, @NonNull LongSupplier clock) {
+    this.concurrency = Math.max(1, concurrency);
+    this.smallJobBlocks = smallJobBlocks;
+    this.executor = executor;
+    this.clock = clock;
+    Comparator<Job> order = Comparator.comparingInt((Job j) -> -j.priority)
+      .thenComparing((Job j) -> !j.isSmall())
+      .thenComparingLong(j -> j.isSmall() ? j.blocks : 0)
+      .thenComparingLong(j -> j.sequence);
+    queued = new PriorityQueue<>(order);
+  }
+
+  /**
+   * Queues a job.
+   * @param name the unique name of the job
+   * @param priority the priority of the job, higher values are started first and get a larger share of the budget
+   * @param blocks the estimated amount of blocks of the job
+   * @param start starts the job with the given weight and returns a future that completes when the job is done
+   * @return a future that completes with the job, cancelling it cancels the job
+   */
+  public @NonNull CompletableFuture<Void> submit(@NonNull String name, int priority, long blocks, @NonNull IntFunction<CompletableFuture<Void>> start) {
+    final Job job;
+    synchronized (this) {
+      job = new Job(name, Math.max(0, priority), Math.max(0, blocks), sequence++, start);
+      queued.add(job);
+    }
+    job.result.whenComplete((ignored, t) -> {
+      if (job.result.isCancelled()) cancel(job);
+    });
+    dispatch();
+    return job.result;
+  }
+
+  /**
+   * Cancels the queued or running job with the specified name.
+   * @param name the name of the job
+   * @return true if a job was cancelled, false otherwise
+   */
+  public boolean cancel(@NonNull String name) {
+    final Job job;
+    synchronized (this) {
+      job = find(name);
+    }
+    if (job == null) return false;
+    cancel(job);
+    return true;
+  }
+
+  private void cancel(Job job) {
+    final CompletableFuture<Void> started;
+    synchronized (this) {
+      queued.remove(job);
+      started = job.started;
+    }
+    job.result.cancel(false);
+    if (started != null) started.cancel(false);
+  }
+
+  private Job find(String name) {
+    for (Job job : running) {
+      if (job.name.equals(name)) return job;
+    }
+    for (Job job : queued) {
+      if (job.name.equals(name)) return job;
+    }
+    return null;
+  }
+
+  public synchronized boolean contains(@NonNull String name) {
+    return find(name) != null;
+  }
+
+  private void dispatch() {
+    final List<Job> toStart = new ArrayList<>();
+    synchronized (this) {
+      while (running.size() < concurrency && !queued.isEmpty()) {
+        Job job = queued.poll();
+        running.add(job);
+        toStart.add(job);
+      }
+    }
+    for (Job job : toStart) {
+      executor.execute(() -> start(job));
+    }
+  }
+
+  private void start(Job job) {
+    final CompletableFuture<Void> future;
+    synchronized (this) {
+      if (job.result.isDone()) { // Cancelled before it could start
+        running.remove(job);
+        future = null;
+      } else {
+        job.startTime = clock.getAsLong();
+        future = job.started = job.start.apply(Math.min(MAX_WEIGHT, 1 + job.priority));
+      }
+    }
+    if (future == null) {
+      dispatch();
+      return;
+    }
+    future.whenComplete((ignored, t) -> {
+      synchronized (this) {
+        running.remove(job);
+        if (t == null) record(job);
+      }
+      if (t == null) {
+        job.result.complete(null);
+      } else {
+        job.result.completeExceptionally(t);
+      }
+      dispatch();
+    });
+  }
+
+  private void record(Job job) {
+    final long duration = Math.max(1, clock.getAsLong() - job.startTime);
+    final double value = job.blocks / (double) duration;
+    throughput = throughput == 0 ? value : throughput + SMOOTHING * (value - throughput);
+  }
+
+  /**
+   * @return the measured throughput of a single job in blocks per millisecond or 0 if nothing has been measured yet
+   */
+  public synchronized double getThroughput() {
+    return throughput;
+  }
+
+  public synchronized int size() {
+    return running.size() + queued.size();
+  }
+
+  /**
+   * @return running jobs followed by queued jobs in the order they will be started
+   */
+  public synchronized @NonNull List<@NonNull Entry> getEntries() {
+    if (running.isEmpty() && queued.isEmpty()) return Collections.emptyList();
+    final List<Entry> result = new ArrayList<>(running.size() + queued.size());
+    final long now = clock.getAsLong();
+    double pending = 0;
+    for (Job job : running) {
+      double remaining = Math.max(0, job.blocks - (now - job.startTime) * throughput);
+      pending += remaining;
+      result.add(new Entry(job.name, 0, true, job.blocks, estimate(remaining, 1)));
+    }
+    final List<Job> ordered = new ArrayList<>(queued);
+    ordered.sort(queued.comparator());
+    int position = 0;
+    for (Job job : ordered) {
+      pending += job.blocks;
+      result.add(new Entry(job.name, ++position, false, job.blocks, estimate(pending, concurrency)));
+    }
+    return result;
+  }
+
+  private long estimate(double blocks, int parallel) {
+    if (throughput == 0) return -1;
+    return Math.round(blocks / (throughput * parallel));
+  }
+}
@@ -0,0 +1,102 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.util.Iterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Starts asynchronous tasks in order while keeping at most a fixed amount of them in flight.
+ * A new task is only started when a running one completes. If any task fails or is cancelled,
+ * no further tasks are started and the combined future completes with the same exception.
+ */
+public final class TaskWindow {
+  private final Iterator<? extends Supplier<? extends CompletableFuture<?>>> tasks;
+  private final CompletableFuture<Void> result = new CompletableFuture<>();
+  private int free;
+  private int running;
+  private boolean draining;
+
+  private TaskWindow(Iterator<? extends Supplier<? extends CompletableFuture<?>>> tasks, int size) {
+    this.tasks = tasks;
+    free = size;
+  }
+
+  /**
+   * Runs the given tasks with bounded concurrency.
+   * @param tasks the tasks to start, in order
+   * @param size the maximum amount of tasks in flight
+   * @return a future that completes once every task has completed, cancelling it stops admitting new tasks
+   */
+  public static @NonNull CompletableFuture<Void> run(@NonNull Iterable<? extends Supplier<? extends CompletableFuture<?>>> tasks, int size) {
+    if (size < 1) throw new IllegalArgumentException("Invalid window size: " + size);
+    final TaskWindow window = new TaskWindow(tasks.iterator(), size);
+    window.draining = true;
+    window.drain();
+    return window.result;
+  }
+
+  /**
+   * Starts tasks until the window is full. Tasks that complete while this runs only free their slot,
+   * which keeps the stack flat when tasks complete immediately.
+   */
+  private void drain() {
+    while (true) {
+      final Supplier<? extends CompletableFuture<?>> next;
+      synchronized (this) {
+        if (result.isDone() || free == 0 || !tasks.hasNext()) {
+          draining = false;
+          if (running == 0 && !tasks.hasNext()) result.complete(null);
+          return;
+        }
+        next = tasks.next();
+        free--;
+        running++;
+      }
+      final CompletableFuture<?> future;
+      try {
+        future = next.get();
+      } catch (RuntimeException e) {
+        result.completeExceptionally(e);
+        return;
+      }
+      future.whenComplete((ignored, t) -> onComplete(t));
+    }
+  }
+
+  private void onComplete(Throwable t) {
+    synchronized (this) {
+      running--;
+      if (t == null) {
+        free++;
+        if (draining) return;
+        draining = true;
+      }
+    }
+    if (t != null) {
+      result.completeExceptionally(t);
+    } else {
+      drain();
+    }
+  }
+}
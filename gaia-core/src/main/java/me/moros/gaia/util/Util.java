@@ -20,6 +20,7 @@
 package me.moros.gaia.util;
 
 import java.util.Arrays;
+import java.util.Locale;
 import java.util.regex.Pattern;
 
 import org.checkerframework.checker.nullness.qual.NonNull;
@@ -34,7 +35,7 @@ public class Util {
    * @return the sanitized output string
    */
   public static @NonNull String sanitizeInput(@NonNull String input) {
-    String output = NON_ALPHANUMERICAL.matcher(input).replaceAll("").toLowerCase();
+    String output = NON_ALPHANUMERICAL.matcher(input).replaceAll("").toLowerCase(Locale.ROOT);
     return output.length() > 32 ? output.substring(0, 32) : output;
   }
 
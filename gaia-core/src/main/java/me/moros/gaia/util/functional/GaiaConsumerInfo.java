@@ -19,15 +19,46 @@
 
 package me.moros.gaia.util.functional;
 
+import java.util.concurrent.atomic.LongAdder;
+
 import me.moros.gaia.platform.GaiaUser;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 public class GaiaConsumerInfo {
   public final GaiaUser user;
   public final long startTime;
+  /**
+   * The amount of blocks that were written during a revert.
+   */
+  public final LongAdder changedBlocks = new LongAdder();
+  /**
+   * The amount of blocks that were left untouched during a revert because they were already unchanged.
+   */
+  public final LongAdder skippedBlocks = new LongAdder();
+  /**
+   * The amount of chunks that had to be loaded during a revert.
+   */
+  public final LongAdder loadedChunks = new LongAdder();
+  /**
+   * The amount of chunks that were already loaded during a revert.
+   */
+  public final LongAdder cachedChunks = new LongAdder();
+
+  private volatile int weight = 1;
 
   public GaiaConsumerInfo(@NonNull GaiaUser user) {
     this.user = user;
     startTime = System.currentTimeMillis();
   }
+
+  /**
+   * @return the share of the tick budget for this operation relative to other operations
+   */
+  public int getWeight() {
+    return weight;
+  }
+
+  public void setWeight(int weight) {
+    this.weight = Math.max(1, weight);
+  }
 }
@@ -19,22 +19,31 @@
 
 package me.moros.gaia.util.functional;
 
-import java.util.Iterator;
+import java.util.PrimitiveIterator;
 
-import me.moros.gaia.api.GaiaVector;
 import me.moros.gaia.platform.GaiaWorld;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 public final class GaiaRunnableInfo {
-  public final Iterator<GaiaVector> it;
+  /**
+   * The indices of the blocks to process, in the order of {@link me.moros.gaia.api.GaiaData}.
+   */
+  public final PrimitiveIterator.OfInt it;
   public final GaiaWorld world;
-  public final int maxTransactions;
+  /**
+   * The share of the tick budget for this work relative to other work.
+   */
+  public final int weight;
   public final long startTime;
 
-  public GaiaRunnableInfo(@NonNull Iterator<GaiaVector> it, @NonNull GaiaWorld world, int maxTransactions) {
+  public GaiaRunnableInfo(PrimitiveIterator.@NonNull OfInt it, @NonNull GaiaWorld world) {
+    this(it, world, 1);
+  }
+
+  public GaiaRunnableInfo(PrimitiveIterator.@NonNull OfInt it, @NonNull GaiaWorld world, int weight) {
     this.it = it;
     this.world = world;
-    this.maxTransactions = maxTransactions;
+    this.weight = weight;
     startTime = System.currentTimeMillis();
   }
 }
@@ -24,8 +24,10 @@ import java.util.List;
 
 import me.moros.gaia.api.Arena;
 import me.moros.gaia.api.GaiaVector;
+import me.moros.gaia.io.CompressionCodec;
 import me.moros.gaia.util.Util;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class ArenaMetadata extends GaiaMetadata {
   public int version;
@@ -38,6 +40,8 @@ public class ArenaMetadata extends GaiaMetadata {
 
   public int amount;
   public List<ChunkMetadata> chunks;
+  public List<String> palette; // Block states referenced by chunk data, null for arenas stored before it existed
+  public String compression;
 
   public ArenaMetadata(@NonNull Arena arena) {
     version = VERSION;
@@ -49,9 +53,17 @@ public class ArenaMetadata extends GaiaMetadata {
     chunks = new ArrayList<>(amount);
   }
 
+  /**
+   * @return the codec used to compress the data of this arena or null if it's unknown
+   */
+  public @Nullable CompressionCodec getCodec() {
+    return CompressionCodec.fromName(compression); // Metadata created before codecs were recorded uses the legacy one
+  }
+
   @Override
   public boolean isValidMetadata() {
-    if (version != VERSION) return false;
+    if (version < LEGACY_VERSION || version > VERSION) return false;
+    if (getCodec() == null) return false;
     if (name == null || world == null || min == null || max == null || chunks == null) return false;
     if (!Util.validateInput(name)) return false;
     if (!GaiaVector.isValidVector(min) || !GaiaVector.isValidVector(max)) return false;
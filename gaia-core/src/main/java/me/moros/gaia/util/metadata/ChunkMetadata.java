@@ -21,7 +21,9 @@ package me.moros.gaia.util.metadata;
 
 import me.moros.gaia.api.GaiaChunk;
 import me.moros.gaia.api.GaiaVector;
+import me.moros.gaia.io.ChecksumAlgorithm;
 import org.checkerframework.checker.nullness.qual.NonNull;
+import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class ChunkMetadata extends GaiaMetadata {
   public GaiaVector min;
@@ -29,18 +31,28 @@ public class ChunkMetadata extends GaiaMetadata {
 
   public String id;
   public String hash;
+  public String algorithm;
 
-  public ChunkMetadata(@NonNull GaiaChunk region, @NonNull String hash) {
+  public ChunkMetadata(@NonNull GaiaChunk region, @NonNull String hash, @NonNull ChecksumAlgorithm algorithm) {
     min = region.getRegion().getMinimumPoint();
     max = region.getRegion().getMaximumPoint();
     this.id = region.getId().toString();
     this.hash = hash;
+    this.algorithm = algorithm.name();
+  }
+
+  /**
+   * @return the algorithm used to checksum the data or null if it's unknown
+   */
+  public @Nullable ChecksumAlgorithm getAlgorithm() {
+    return ChecksumAlgorithm.fromName(algorithm); // Metadata created before algorithms were recorded uses the legacy one
   }
 
   @Override
   public boolean isValidMetadata() {
     if (id == null || hash == null || min == null || max == null) return false;
     if (id.isEmpty()) return false;
-    return hash.length() == 32;
+    ChecksumAlgorithm checksum = getAlgorithm();
+    return checksum != null && checksum.isValidHash(hash);
   }
 }
@@ -20,7 +20,12 @@
 package me.moros.gaia.util.metadata;
 
 public abstract class GaiaMetadata {
-  public static final int VERSION = 1;
+  public static final int LEGACY_VERSION = 1;
+  public static final int PACKED_VERSION = 2;
+  public static final int SECTIONS_VERSION = 3;
+  public static final int SHARED_PALETTE_VERSION = 4;
+  public static final int ALIGNED_SECTIONS_VERSION = 5;
+  public static final int VERSION = 5;
 
   public abstract boolean isValidMetadata();
 }
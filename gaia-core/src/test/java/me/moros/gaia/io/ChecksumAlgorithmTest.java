@@ -0,0 +1,83 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChecksumAlgorithmTest {
+  private static final byte[] INPUT = "123456789".getBytes(StandardCharsets.US_ASCII);
+
+  @Test
+  public void knownValues() {
+    assertEquals("25f9e794323b453885f5181f1b624d0b", hash(ChecksumAlgorithm.MD5, INPUT));
+    assertEquals("e3069283", hash(ChecksumAlgorithm.CRC32C, INPUT));
+  }
+
+  @Test
+  public void fromName() {
+    assertEquals(ChecksumAlgorithm.LEGACY, ChecksumAlgorithm.fromName(null));
+    assertEquals(ChecksumAlgorithm.CRC32C, ChecksumAlgorithm.fromName("crc32c"));
+    assertNull(ChecksumAlgorithm.fromName("sha1024"));
+  }
+
+  @Test
+  public void validHash() {
+    assertTrue(ChecksumAlgorithm.MD5.isValidHash("25f9e794323b453885f5181f1b624d0b"));
+    assertFalse(ChecksumAlgorithm.MD5.isValidHash("e3069283"));
+    assertFalse(ChecksumAlgorithm.CRC32C.isValidHash("e306928z"));
+    assertFalse(ChecksumAlgorithm.CRC32C.isValidHash(null));
+  }
+
+  @Test
+  public void streams() throws IOException {
+    byte[] data = new byte[100_000];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) (i * 7);
+    }
+    for (ChecksumAlgorithm algorithm : ChecksumAlgorithm.values()) {
+      String expected = hash(algorithm, data);
+      ByteArrayOutputStream bos = new ByteArrayOutputStream();
+      ChecksumOutputStream out = new ChecksumOutputStream(bos, algorithm.create());
+      out.write(data[0]);
+      out.write(data, 1, data.length - 1);
+      assertEquals(expected, out.getChecksum());
+
+      ChecksumInputStream in = new ChecksumInputStream(new ByteArrayInputStream(bos.toByteArray()), algorithm.create());
+      assertEquals(data[0] & 0xFF, in.read());
+      assertEquals(1000, in.skip(1000));
+      assertEquals(100, in.read(new byte[100]));
+      assertEquals(expected, in.finish());
+    }
+  }
+
+  private static String hash(ChecksumAlgorithm algorithm, byte[] data) {
+    ChecksumAlgorithm.Hasher hasher = algorithm.create();
+    hasher.update(data, 0, data.length);
+    return hasher.getValue();
+  }
+}
@@ -0,0 +1,215 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Measures how well each {@link CompressionCodec} handles a set of samples, usually the chunk data of an arena.
+ * Every sample is compressed once and then decompressed a few times, keeping the fastest round
+ * so the results are less affected by code that hasn't been optimized by the JVM yet.
+ * Run {@link #main(String[])} through the benchmark task to measure stored arenas.
+ */
+public final class CodecBenchmark {
+  private static final int ROUNDS = 5;
+  private static final int[] DEFLATE_LEVELS = {1, 6, 9};
+
+  private CodecBenchmark() {
+  }
+
+  /**
+   * Measures every codec against the stored data of an arena.
+   * @param args the arena data directory or container file, optionally followed by the codec it is stored with
+   */
+  public static void main(String[] args) throws IOException {
+    if (args.length < 1) {
+      System.out.println("Usage: CodecBenchmark <arena directory|arena" + GaiaContainer.SUFFIX + "> [codec]");
+      return;
+    }
+    Path path = Paths.get(args[0]);
+    CompressionCodec codec = args.length > 1 ? CompressionCodec.valueOf(args[1].toUpperCase(Locale.ROOT)) : CompressionCodec.GZIP;
+    List<byte[]> samples = new ArrayList<>();
+    if (Files.isDirectory(path)) {
+      try (Stream<Path> files = Files.list(path)) {
+        for (Path file : (Iterable<Path>) files.filter(p -> p.toString().endsWith(GaiaIO.DATA_SUFFIX))::iterator) {
+          try (InputStream is = codec.decompress(Files.newInputStream(file))) {
+            samples.add(is.readAllBytes());
+          }
+        }
+      }
+    } else {
+      GaiaContainer container = GaiaContainer.open(path);
+      for (UUID id : container.getIds()) {
+        try (InputStream is = codec.decompress(new ByteBufferInputStream(container.slice(id)))) {
+          samples.add(is.readAllBytes());
+        }
+      }
+    }
+    long size = samples.stream().mapToLong(s -> s.length).sum();
+    System.out.printf(Locale.ROOT, "%d chunk(s), %d KiB uncompressed%n", samples.size(), size / 1024);
+    for (Result result : run(samples)) {
+      System.out.printf(Locale.ROOT, "%-10s ratio %6.2f, encoding at %7.1f MB/s, decoding at %7.1f MB/s%n",
+        result.getName(), result.getRatio(), result.getEncodeThroughput(), result.getDecodeThroughput());
+    }
+  }
+
+  /**
+   * Runs the benchmark for every codec. Deflate is measured at a low, default and high level.
+   * @param samples the uncompressed samples
+   * @return the results in the order codecs are declared
+   * @throws IOException if a sample could not be compressed or decompressed
+   */
+  public static @NonNull List<@NonNull Result> run(@NonNull List<byte @NonNull []> samples) throws IOException {
+    List<Result> results = new ArrayList<>();
+    for (CompressionCodec codec : CompressionCodec.values()) {
+      if (codec == CompressionCodec.DEFLATE) {
+        for (int level : DEFLATE_LEVELS) {
+          results.add(run(samples, codec, level));
+        }
+      } else {
+        results.add(run(samples, codec, CompressionCodec.DEFAULT_LEVEL));
+      }
+    }
+    return Collections.unmodifiableList(results);
+  }
+
+  /**
+   * Runs the benchmark for a single codec.
+   * @param samples the uncompressed samples
+   * @param codec the codec to measure
+   * @param level the compression level
+   * @return the result
+   * @throws IOException if a sample could not be compressed or decompressed
+   */
+  public static @NonNull Result run(@NonNull List<byte @NonNull []> samples, @NonNull CompressionCodec codec, int level) throws IOException {
+    long rawBytes = 0;
+    long compressedBytes = 0;
+    List<byte[]> compressed = new ArrayList<>(samples.size());
+    long start = System.nanoTime();
+    for (byte[] sample : samples) {
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream(sample.length / 2);
+      try (OutputStream out = codec.compress(buffer, level)) {
+        out.write(sample);
+      }
+      rawBytes += sample.length;
+      compressedBytes += buffer.size();
+      compressed.add(buffer.toByteArray());
+    }
+    long encodeNanos = System.nanoTime() - start;
+    byte[] sink = new byte[8192];
+    long decodeNanos = Long.MAX_VALUE;
+    for (int round = 0; round < ROUNDS; round++) {
+      start = System.nanoTime();
+      long decoded = 0;
+      for (byte[] data : compressed) {
+        try (InputStream in = codec.decompress(new ByteArrayInputStream(data))) {
+          int read;
+          while ((read = in.read(sink)) >= 0) {
+            decoded += read;
+          }
+        }
+      }
+      decodeNanos = Math.min(decodeNanos, System.nanoTime() - start);
+      if (decoded != rawBytes) throw new IOException(codec + " did not decode to the original size");
+    }
+    return new Result(codec, level, rawBytes, compressedBytes, encodeNanos, decodeNanos);
+  }
+
+  public static final class Result {
+    private final CompressionCodec codec;
+    private final int level;
+    private final long rawBytes;
+    private final long compressedBytes;
+    private final long encodeNanos;
+    private final long decodeNanos;
+
+    private Result(CompressionCodec codec, int level, long rawBytes, long compressedBytes, long encodeNanos, long decodeNanos) {
+      this.codec = codec;
+      this.level = level;
+      this.rawBytes = rawBytes;
+      this.compressedBytes = compressedBytes;
+      this.encodeNanos = encodeNanos;
+      this.decodeNanos = decodeNanos;
+    }
+
+    public @NonNull CompressionCodec getCodec() {
+      return codec;
+    }
+
+    public int getLevel() {
+      return level;
+    }
+
+    /**
+     * @return the codec name followed by the level if one was specified
+     */
+    public @NonNull String getName() {
+      return level == CompressionCodec.DEFAULT_LEVEL ? codec.name() : codec.name() + ":" + level;
+    }
+
+    public long getRawBytes() {
+      return rawBytes;
+    }
+
+    public long getCompressedBytes() {
+      return compressedBytes;
+    }
+
+    /**
+     * @return the uncompressed size divided by the compressed size
+     */
+    public double getRatio() {
+      return compressedBytes == 0 ? 0 : rawBytes / (double) compressedBytes;
+    }
+
+    /**
+     * @return the amount of uncompressed megabytes consumed per second of compression
+     */
+    public double getEncodeThroughput() {
+      return throughput(encodeNanos);
+    }
+
+    /**
+     * @return the amount of uncompressed megabytes produced per second of decompression
+     */
+    public double getDecodeThroughput() {
+      return throughput(decodeNanos);
+    }
+
+    private double throughput(long nanos) {
+      return nanos <= 0 ? 0 : rawBytes / 1e6 / (nanos / 1e9);
+    }
+  }
+}
@@ -0,0 +1,119 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressionCodecTest {
+  @Test
+  public void fromName() {
+    assertEquals(CompressionCodec.LEGACY, CompressionCodec.fromName(null));
+    assertEquals(CompressionCodec.LZ, CompressionCodec.fromName("lz"));
+    assertNull(CompressionCodec.fromName("zip"));
+    assertTrue(CompressionCodec.isValidLevel(CompressionCodec.DEFAULT_LEVEL));
+    assertTrue(CompressionCodec.isValidLevel(9));
+    assertFalse(CompressionCodec.isValidLevel(10));
+  }
+
+  @Test
+  public void roundTrip() throws IOException {
+    for (byte[] data : samples()) {
+      for (CompressionCodec codec : CompressionCodec.values()) {
+        for (int level : new int[]{CompressionCodec.DEFAULT_LEVEL, 1, 9}) {
+          assertArrayEquals(data, decompress(codec, compress(codec, level, data)), codec + ":" + level);
+        }
+      }
+    }
+  }
+
+  @Test
+  public void lzRatio() throws IOException {
+    byte[] data = repetitive(200_000);
+    byte[] compressed = compress(CompressionCodec.LZ, CompressionCodec.DEFAULT_LEVEL, data);
+    assertTrue(compressed.length < data.length / 4);
+    byte[] random = new byte[100_000];
+    new Random(3).nextBytes(random);
+    assertTrue(compress(CompressionCodec.LZ, CompressionCodec.DEFAULT_LEVEL, random).length < random.length + 32);
+  }
+
+  @Test
+  public void lzCorruptedData() throws IOException {
+    byte[] compressed = compress(CompressionCodec.LZ, CompressionCodec.DEFAULT_LEVEL, repetitive(100_000));
+    byte[] truncated = Arrays.copyOf(compressed, compressed.length - 10);
+    assertThrows(IOException.class, () -> decompress(CompressionCodec.LZ, truncated));
+    byte[] damaged = compressed.clone();
+    for (int i = 8; i < 40; i++) {
+      damaged[i] = (byte) 0xFF;
+    }
+    assertThrows(IOException.class, () -> decompress(CompressionCodec.LZ, damaged));
+  }
+
+  @Test
+  public void benchmark() throws IOException {
+    List<CodecBenchmark.Result> results = CodecBenchmark.run(samples());
+    assertEquals(CompressionCodec.values().length + 2, results.size());
+    for (CodecBenchmark.Result result : results) {
+      assertEquals(results.get(0).getRawBytes(), result.getRawBytes());
+      assertTrue(result.getDecodeThroughput() > 0);
+    }
+    assertEquals("DEFLATE:9", results.get(4).getName());
+    assertTrue(results.get(results.size() - 1).getRatio() > 1);
+  }
+
+  private static List<byte[]> samples() {
+    byte[] random = new byte[70_000];
+    new Random(5).nextBytes(random);
+    return Arrays.asList(new byte[0], new byte[]{1, 2, 3}, new byte[300], repetitive(LzCodec.BLOCK_SIZE * 2 + 17), random);
+  }
+
+  private static byte[] repetitive(int length) {
+    Random random = new Random(11);
+    byte[] data = new byte[length];
+    for (int i = 0; i < length; i++) {
+      data[i] = (byte) (random.nextInt(64) == 0 ? random.nextInt(4) : i / 4096);
+    }
+    return data;
+  }
+
+  private static byte[] compress(CompressionCodec codec, int level, byte[] data) throws IOException {
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (OutputStream out = codec.compress(bos, level)) {
+      out.write(data);
+    }
+    return bos.toByteArray();
+  }
+
+  private static byte[] decompress(CompressionCodec codec, byte[] data) throws IOException {
+    try (InputStream in = codec.decompress(new ByteArrayInputStream(data))) {
+      return in.readAllBytes();
+    }
+  }
+}
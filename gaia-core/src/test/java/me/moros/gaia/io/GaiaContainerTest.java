@@ -0,0 +1,91 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GaiaContainerTest {
+
+  @Test
+  public void packAndRead(@TempDir Path dir) throws IOException {
+    Map<UUID, Path> files = new LinkedHashMap<>();
+    Map<UUID, byte[]> contents = new LinkedHashMap<>();
+    for (int i = 0; i < 8; i++) {
+      UUID id = UUID.randomUUID();
+      byte[] content = new byte[i * 1000];
+      for (int j = 0; j < content.length; j++) {
+        content[j] = (byte) (j * 31 + i);
+      }
+      Path file = dir.resolve(id + GaiaIO.DATA_SUFFIX);
+      Files.write(file, content);
+      files.put(id, file);
+      contents.put(id, content);
+    }
+    Path target = dir.resolve("arena" + GaiaContainer.SUFFIX);
+    GaiaContainer.pack(target, files);
+    GaiaContainer container = GaiaContainer.open(target);
+    assertEquals(files.keySet(), container.getIds());
+    for (Map.Entry<UUID, byte[]> entry : contents.entrySet()) {
+      ByteBuffer slice = container.slice(entry.getKey());
+      assertNotNull(slice);
+      byte[] actual = new byte[slice.remaining()];
+      slice.get(actual);
+      assertArrayEquals(entry.getValue(), actual);
+    }
+    assertNull(container.slice(UUID.randomUUID()));
+  }
+
+  @Test
+  public void close(@TempDir Path dir) throws IOException {
+    UUID id = UUID.randomUUID();
+    Path file = dir.resolve(id + GaiaIO.DATA_SUFFIX);
+    Files.write(file, new byte[]{1, 2, 3});
+    Path target = dir.resolve("arena" + GaiaContainer.SUFFIX);
+    GaiaContainer.pack(target, Map.of(id, file));
+    GaiaContainer container = GaiaContainer.open(target);
+    ByteBuffer slice = container.slice(id);
+    assertNotNull(slice);
+    container.close();
+    assertTrue(container.isClosed());
+    assertNull(container.slice(id));
+    assertEquals(3, slice.remaining());
+    assertEquals(1, slice.get());
+    GaiaContainer.pack(target, Map.of(id, file));
+    assertFalse(GaiaContainer.open(target).isClosed());
+  }
+
+  @Test
+  public void invalidHeader(@TempDir Path dir) throws IOException {
+    Path target = dir.resolve("invalid" + GaiaContainer.SUFFIX);
+    Files.write(target, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12});
+    assertThrows(IOException.class, () -> GaiaContainer.open(target));
+  }
+}
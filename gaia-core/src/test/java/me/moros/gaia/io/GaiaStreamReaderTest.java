@@ -0,0 +1,271 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.logging.Logger;
+
+import com.sk89q.jnbt.ByteArrayTag;
+import com.sk89q.jnbt.CompoundTag;
+import com.sk89q.jnbt.IntTag;
+import com.sk89q.jnbt.ListTag;
+import com.sk89q.jnbt.NBTInputStream;
+import com.sk89q.jnbt.NBTOutputStream;
+import com.sk89q.jnbt.ShortTag;
+import com.sk89q.jnbt.StringTag;
+import com.sk89q.jnbt.Tag;
+import me.moros.gaia.GaiaArenaManager;
+import me.moros.gaia.GaiaPlugin;
+import me.moros.gaia.api.Arena;
+import me.moros.gaia.api.GaiaChunk;
+import me.moros.gaia.api.GaiaData;
+import me.moros.gaia.api.GaiaRegion;
+import me.moros.gaia.api.GaiaVector;
+import me.moros.gaia.platform.GaiaBlockData;
+import me.moros.gaia.platform.GaiaWorld;
+import me.moros.gaia.util.metadata.GaiaMetadata;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GaiaStreamReaderTest {
+  private static final GaiaPlugin PLATFORM = new TestPlatform();
+
+  @Test
+  public void matchesTagReader() throws IOException {
+    GaiaData original = randomData(GaiaVector.at(16, 64, 16), 200);
+    for (int version = GaiaMetadata.LEGACY_VERSION; version <= GaiaMetadata.VERSION; version++) {
+      byte[] bytes = write(original, version);
+      GaiaData expected = new GaiaReader(PLATFORM, new NBTInputStream(new ByteArrayInputStream(bytes))).read();
+      GaiaData actual = new GaiaStreamReader(PLATFORM, new ByteArrayInputStream(bytes)).read();
+      assertSameBlocks(original, expected);
+      assertSameBlocks(expected, actual);
+    }
+  }
+
+  @Test
+  public void packedDuplicateStates() throws IOException {
+    GaiaData original = new GaiaData(GaiaVector.at(4, 4, 4));
+    GaiaBlockData stone = PLATFORM.getBlockDataFromString("minecraft:stone");
+    GaiaBlockData duplicate = () -> "minecraft:stone";
+    for (int i = 0; i < original.getVolume(); i++) {
+      original.setDataAt(i % 4, i / 16, (i / 4) % 4, (i % 3 == 0) ? stone : (i % 3 == 1) ? duplicate : PLATFORM.getBlockDataFromString("minecraft:air"));
+    }
+    assertEquals(3, original.getPalette().size());
+    GaiaData actual = new GaiaStreamReader(PLATFORM, new ByteArrayInputStream(write(original, GaiaMetadata.VERSION))).read();
+    assertEquals(2, actual.getPalette().size());
+    assertSameBlocks(original, actual);
+  }
+
+  @Test
+  public void uniformSections() throws IOException {
+    GaiaData original = new GaiaData(GaiaVector.at(16, 40, 16));
+    GaiaBlockData stone = PLATFORM.getBlockDataFromString("minecraft:stone");
+    GaiaBlockData dirt = PLATFORM.getBlockDataFromString("minecraft:dirt");
+    GaiaBlockData air = PLATFORM.getBlockDataFromString("minecraft:air");
+    for (int y = 0; y < 40; y++) {
+      for (int z = 0; z < 16; z++) {
+        for (int x = 0; x < 16; x++) {
+          original.setDataAt(x, y, z, y < 16 ? stone : (y < 20 && (x + z) % 2 == 0) ? dirt : air);
+        }
+      }
+    }
+    byte[] packed = write(original, GaiaMetadata.PACKED_VERSION);
+    byte[] sections = write(original, GaiaMetadata.VERSION);
+    assertTrue(sections.length < packed.length / 2);
+    GaiaData expected = new GaiaReader(PLATFORM, new NBTInputStream(new ByteArrayInputStream(sections))).read();
+    GaiaData actual = new GaiaStreamReader(PLATFORM, new ByteArrayInputStream(sections)).read();
+    assertSameBlocks(original, expected);
+    assertSameBlocks(original, actual);
+  }
+
+  @Test
+  public void alignedSections() throws IOException {
+    GaiaData original = new GaiaData(GaiaVector.at(16, 24, 16));
+    original.alignSections(72);
+    GaiaBlockData stone = PLATFORM.getBlockDataFromString("minecraft:stone");
+    GaiaBlockData air = PLATFORM.getBlockDataFromString("minecraft:air");
+    for (int y = 0; y < 24; y++) {
+      for (int z = 0; z < 16; z++) {
+        for (int x = 0; x < 16; x++) {
+          original.setDataAt(x, y, z, y < 8 ? stone : (y < 12 && x == z) ? stone : air);
+        }
+      }
+    }
+    assertEquals(0, original.getUniformPaletteId(0));
+    byte[] bytes = write(original, GaiaMetadata.VERSION);
+    GaiaData expected = new GaiaReader(PLATFORM, new NBTInputStream(new ByteArrayInputStream(bytes))).read();
+    GaiaData actual = new GaiaStreamReader(PLATFORM, new ByteArrayInputStream(bytes)).read();
+    assertEquals(8, expected.getSectionOffset());
+    assertEquals(8, actual.getSectionOffset());
+    assertSameBlocks(original, expected);
+    assertSameBlocks(original, actual);
+    // Older versions can't store the offset so they pack every block instead
+    byte[] unaligned = write(original, GaiaMetadata.SHARED_PALETTE_VERSION);
+    actual = new GaiaStreamReader(PLATFORM, new ByteArrayInputStream(unaligned)).read();
+    assertEquals(0, actual.getSectionOffset());
+    assertSameBlocks(original, actual);
+  }
+
+  @Test
+  public void arenaPalette() throws IOException {
+    ArenaPalette arenaPalette = new ArenaPalette();
+    GaiaData first = randomData(GaiaVector.at(8, 8, 8), 6);
+    GaiaData second = randomData(GaiaVector.at(4, 20, 4), 9);
+    byte[] firstBytes = write(first, arenaPalette);
+    byte[] secondBytes = write(second, arenaPalette);
+    assertEquals(9, arenaPalette.size());
+    GaiaBlockData[] resolved = new ArenaPalette(arenaPalette.getStates()).resolve(PLATFORM);
+    for (byte[] bytes : Arrays.asList(firstBytes, secondBytes)) {
+      GaiaData expected = new GaiaReader(PLATFORM, new NBTInputStream(new ByteArrayInputStream(bytes)), resolved).read();
+      GaiaData actual = new GaiaStreamReader(PLATFORM, new ByteArrayInputStream(bytes), resolved).read();
+      assertSameBlocks(expected, actual);
+      for (GaiaBlockData entry : actual.getPalette()) {
+        assertTrue(Arrays.asList(resolved).contains(entry));
+      }
+      assertThrows(IOException.class, () -> new GaiaStreamReader(PLATFORM, new ByteArrayInputStream(bytes)).read());
+    }
+    assertSameBlocks(first, new GaiaStreamReader(PLATFORM, new ByteArrayInputStream(firstBytes), resolved).read());
+    assertSameBlocks(second, new GaiaStreamReader(PLATFORM, new ByteArrayInputStream(secondBytes), resolved).read());
+  }
+
+  @Test
+  public void blockDataBeforePalette() throws IOException {
+    Map<String, Tag> schematic = new LinkedHashMap<>();
+    schematic.put("Comment", new StringTag("unknown tags are skipped"));
+    schematic.put("Extra", new ListTag(IntTag.class, Arrays.asList(new IntTag(1), new IntTag(2))));
+    schematic.put("BlockData", new ByteArrayTag(new byte[]{0, 1, (byte) 0x80, 0x01, 1, 0, 0, 0}));
+    schematic.put("Width", new ShortTag((short) 2));
+    schematic.put("Height", new ShortTag((short) 2));
+    schematic.put("Length", new ShortTag((short) 2));
+    Map<String, Tag> palette = new LinkedHashMap<>();
+    palette.put("minecraft:air", new IntTag(0));
+    palette.put("minecraft:stone", new IntTag(1));
+    for (int i = 2; i < 129; i++) {
+      palette.put("minecraft:state" + i, new IntTag(i));
+    }
+    schematic.put("Palette", new CompoundTag(palette));
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (NBTOutputStream nbt = new NBTOutputStream(out)) {
+      nbt.writeNamedTag("Schematic", new CompoundTag(schematic));
+    }
+    GaiaData data = new GaiaStreamReader(PLATFORM, new ByteArrayInputStream(out.toByteArray())).read();
+    assertEquals("minecraft:air", data.getDataAt(0, 0, 0).getAsString());
+    assertEquals("minecraft:stone", data.getDataAt(1, 0, 0).getAsString());
+    assertEquals("minecraft:state128", data.getDataAt(0, 0, 1).getAsString());
+    assertEquals("minecraft:stone", data.getDataAt(1, 0, 1).getAsString());
+  }
+
+  @Test
+  public void corruptedData() throws IOException {
+    for (int version = GaiaMetadata.LEGACY_VERSION; version <= GaiaMetadata.VERSION; version++) {
+      byte[] bytes = write(randomData(GaiaVector.at(4, 4, 4), 4), version);
+      byte[] truncated = Arrays.copyOf(bytes, bytes.length / 2);
+      assertThrows(IOException.class, () -> new GaiaStreamReader(PLATFORM, new ByteArrayInputStream(truncated)).read());
+    }
+  }
+
+  private static byte[] write(GaiaData data, int version) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GaiaWriter writer = new GaiaWriter(new NBTOutputStream(out))) {
+      writer.write(data, version);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] write(GaiaData data, ArenaPalette arenaPalette) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (GaiaWriter writer = new GaiaWriter(new NBTOutputStream(out))) {
+      writer.write(data, arenaPalette);
+    }
+    return out.toByteArray();
+  }
+
+  private static GaiaData randomData(GaiaVector size, int states) {
+    Random random = new Random(7);
+    GaiaData data = new GaiaData(size);
+    for (int y = 0; y < size.getY(); y++) {
+      for (int z = 0; z < size.getZ(); z++) {
+        for (int x = 0; x < size.getX(); x++) {
+          data.setDataAt(x, y, z, PLATFORM.getBlockDataFromString("minecraft:state" + random.nextInt(states)));
+        }
+      }
+    }
+    return data;
+  }
+
+  private static void assertSameBlocks(GaiaData expected, GaiaData actual) {
+    assertEquals(expected.getVector(), actual.getVector());
+    GaiaVector size = expected.getVector();
+    for (int y = 0; y < size.getY(); y++) {
+      for (int z = 0; z < size.getZ(); z++) {
+        for (int x = 0; x < size.getX(); x++) {
+          assertEquals(expected.getDataAt(x, y, z).getAsString(), actual.getDataAt(x, y, z).getAsString());
+        }
+      }
+    }
+  }
+
+  private static final class TestPlatform implements GaiaPlugin {
+    private final Map<String, GaiaBlockData> states = new LinkedHashMap<>();
+
+    @Override
+    public String getAuthor() {
+      return "";
+    }
+
+    @Override
+    public String getVersion() {
+      return "";
+    }
+
+    @Override
+    public Logger getLog() {
+      return Logger.getAnonymousLogger();
+    }
+
+    @Override
+    public GaiaArenaManager getArenaManager() {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public GaiaChunk adaptChunk(UUID id, Arena parent, GaiaRegion region) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public GaiaBlockData getBlockDataFromString(String value) {
+      return states.computeIfAbsent(value, k -> () -> k);
+    }
+
+    @Override
+    public GaiaWorld getWorld(UUID uid) {
+      return null;
+    }
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.io;
+
+import java.util.Map;
+import java.util.UUID;
+
+import me.moros.gaia.api.GaiaData;
+import me.moros.gaia.api.GaiaVector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SnapshotCacheTest {
+
+  @Test
+  public void leastRecentlyUsedEviction() {
+    SnapshotCache cache = new SnapshotCache(2500, SnapshotCache.Mode.COMPRESSED, Map.of());
+    UUID first = UUID.randomUUID();
+    UUID second = UUID.randomUUID();
+    UUID third = UUID.randomUUID();
+    cache.putCompressed("arena", first, new byte[936]);
+    cache.putCompressed("arena", second, new byte[936]);
+    assertEquals(2000, cache.getResidentSize());
+    assertNotNull(cache.getCompressed(first)); // Second is now the least recently used
+    cache.putCompressed("arena", third, new byte[936]);
+    assertNull(cache.getCompressed(second));
+    assertNotNull(cache.getCompressed(first));
+    assertNotNull(cache.getCompressed(third));
+    assertEquals(1, cache.getEvictions());
+    assertEquals(2000, cache.getResidentSize());
+    assertEquals(0.75, cache.getHitRate(), 1e-9);
+  }
+
+  @Test
+  public void oversizedEntries() {
+    SnapshotCache cache = new SnapshotCache(1000, SnapshotCache.Mode.DECODED, Map.of());
+    UUID id = UUID.randomUUID();
+    cache.putData("arena", id, new GaiaData(GaiaVector.at(16, 256, 16)));
+    assertNull(cache.getData(id));
+    assertEquals(0, cache.getResidentSize());
+  }
+
+  @Test
+  public void invalidation() {
+    SnapshotCache cache = new SnapshotCache(1 << 20, SnapshotCache.Mode.DECODED, Map.of());
+    UUID id = UUID.randomUUID();
+    UUID other = UUID.randomUUID();
+    GaiaData data = new GaiaData(GaiaVector.at(16, 16, 16));
+    cache.putData("first", id, data);
+    cache.putData("second", other, data);
+    assertSame(data, cache.getData(id));
+    cache.invalidateArena("first");
+    assertNull(cache.getData(id));
+    assertSame(data, cache.getData(other));
+    cache.invalidate(other);
+    assertEquals(0, cache.getSize());
+    assertEquals(0, cache.getResidentSize());
+  }
+
+  @Test
+  public void modes() {
+    SnapshotCache cache = new SnapshotCache(1024, SnapshotCache.Mode.COMPRESSED, Map.of("arena", SnapshotCache.Mode.DECODED));
+    assertEquals(SnapshotCache.Mode.DECODED, cache.getMode("arena"));
+    assertEquals(SnapshotCache.Mode.COMPRESSED, cache.getMode("other"));
+    SnapshotCache disabled = new SnapshotCache(0, SnapshotCache.Mode.DECODED, Map.of());
+    assertEquals(SnapshotCache.Mode.NONE, disabled.getMode("arena"));
+  }
+}
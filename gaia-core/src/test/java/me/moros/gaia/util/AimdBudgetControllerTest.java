@@ -0,0 +1,73 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AimdBudgetControllerTest {
+
+  @Test
+  public void growsWhenIdle() {
+    AimdBudgetController controller = new AimdBudgetController(1000, 10_000, 2000, 45, 500, 0.5);
+    controller.onTickEnd(5);
+    assertEquals(2500, controller.getBudget());
+    for (int i = 0; i < 100; i++) {
+      controller.onTickEnd(5);
+    }
+    assertEquals(10_000, controller.getBudget());
+  }
+
+  @Test
+  public void shrinksUnderLoad() {
+    AimdBudgetController controller = new AimdBudgetController(1000, 10_000, 8000, 45, 500, 0.5);
+    for (int i = 0; i < 100; i++) {
+      controller.onTickEnd(20);
+    }
+    assertEquals(10_000, controller.getBudget());
+    int ticks = 0;
+    while (controller.getAverageMillis() <= 45) {
+      controller.onTickEnd(80);
+      ticks++;
+    }
+    assertTrue(ticks > 1); // Single slow ticks are smoothed out
+    assertEquals(5000, controller.getBudget());
+    for (int i = 0; i < 100; i++) {
+      controller.onTickEnd(80);
+    }
+    assertEquals(1000, controller.getBudget());
+  }
+
+  @Test
+  public void ignoresInvalidMeasurements() {
+    AimdBudgetController controller = new AimdBudgetController(1000, 10_000, 2000, 45, 500, 0.5);
+    controller.onTickEnd(Double.NaN);
+    controller.onTickEnd(-1);
+    assertEquals(2000, controller.getBudget());
+  }
+
+  @Test
+  public void invalidArguments() {
+    assertThrows(IllegalArgumentException.class, () -> new AimdBudgetController(0, 10, 5, 45, 1, 0.5));
+    assertThrows(IllegalArgumentException.class, () -> new AimdBudgetController(10, 5, 5, 45, 1, 0.5));
+    assertThrows(IllegalArgumentException.class, () -> new AimdBudgetController(1, 10, 5, 45, 1, 1));
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitStorageTest {
+
+  @Test
+  public void bitsFor() {
+    assertEquals(1, BitStorage.bitsFor(1));
+    assertEquals(1, BitStorage.bitsFor(2));
+    assertEquals(2, BitStorage.bitsFor(3));
+    assertEquals(4, BitStorage.bitsFor(16));
+    assertEquals(5, BitStorage.bitsFor(17));
+    assertEquals(16, BitStorage.bitsFor(65536));
+  }
+
+  @Test
+  public void setAndGet() {
+    BitStorage storage = new BitStorage(5, 100);
+    assertEquals(((100 + 11) / 12), storage.getRaw().length);
+    for (int i = 0; i < 100; i++) {
+      storage.set(i, i % 32);
+    }
+    for (int i = 0; i < 100; i++) {
+      assertEquals(i % 32, storage.get(i));
+    }
+    storage.set(50, 0);
+    assertEquals(0, storage.get(50));
+    assertEquals(19, storage.get(51));
+  }
+
+  @Test
+  public void resize() {
+    BitStorage storage = new BitStorage(2, 4096);
+    for (int i = 0; i < 4096; i++) {
+      storage.set(i, i & 3);
+    }
+    BitStorage resized = storage.resize(9);
+    assertEquals(9, resized.getBits());
+    for (int i = 0; i < 4096; i++) {
+      assertEquals(i & 3, resized.get(i));
+    }
+  }
+
+  @Test
+  public void invalidData() {
+    assertThrows(IllegalArgumentException.class, () -> new BitStorage(0, 16));
+    assertThrows(IllegalArgumentException.class, () -> new BitStorage(4, 16, new long[3]));
+  }
+}
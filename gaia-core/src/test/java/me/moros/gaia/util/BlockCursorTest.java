@@ -0,0 +1,54 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.util.NoSuchElementException;
+
+import me.moros.gaia.api.GaiaData;
+import me.moros.gaia.api.GaiaVector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BlockCursorTest {
+
+  @Test
+  public void matchesDataOrder() {
+    GaiaVector size = GaiaVector.at(3, 4, 5);
+    GaiaData data = new GaiaData(size);
+    BlockCursor cursor = new BlockCursor(size);
+    assertEquals(-1, cursor.getIndex());
+    int count = 0;
+    while (cursor.hasNext()) {
+      int index = cursor.nextInt();
+      assertEquals(count++, index);
+      assertEquals(index, data.index(cursor.getX(), cursor.getY(), cursor.getZ()));
+    }
+    assertEquals(60, count);
+  }
+
+  @Test
+  public void exhausted() {
+    BlockCursor cursor = new BlockCursor(GaiaVector.at(1, 1, 1));
+    assertEquals(0, cursor.nextInt());
+    assertFalse(cursor.hasNext());
+    assertThrows(NoSuchElementException.class, cursor::nextInt);
+  }
+}
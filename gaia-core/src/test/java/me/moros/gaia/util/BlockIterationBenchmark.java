@@ -0,0 +1,154 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import me.moros.gaia.api.Arena;
+import me.moros.gaia.api.GaiaChunk;
+import me.moros.gaia.api.GaiaData;
+import me.moros.gaia.api.GaiaRegion;
+import me.moros.gaia.api.GaiaVector;
+import me.moros.gaia.platform.GaiaBlock;
+import me.moros.gaia.platform.GaiaWorld;
+import me.moros.gaia.util.functional.GaiaRunnableInfo;
+
+/**
+ * Compares iterating the blocks of chunks through {@link GaiaChunk#iterator()} against {@link GaiaChunk#cursor()}.
+ * Both loops resolve the world position of every block like the analyze and revert loops do.
+ * Reports the best time per block over several rounds and the bytes allocated per block.
+ */
+public final class BlockIterationBenchmark {
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int ROUNDS = 10;
+
+  private static long sink;
+
+  private BlockIterationBenchmark() {
+  }
+
+  /**
+   * @param args optionally the amount of full height chunks to iterate per round, defaults to 64
+   */
+  public static void main(String[] args) {
+    int amount = args.length > 0 ? Integer.parseInt(args[0]) : 64;
+    List<GaiaChunk> chunks = createChunks(amount);
+    long blocks = chunks.stream().mapToLong(c -> c.getRegion().getVolume()).sum();
+    System.out.printf(Locale.ROOT, "%d chunk(s), %d blocks per round%n", amount, blocks);
+    report("iterator", blocks, () -> iterate(chunks));
+    report("cursor", blocks, () -> cursor(chunks));
+  }
+
+  private static void iterate(List<GaiaChunk> chunks) {
+    for (GaiaChunk chunk : chunks) {
+      GaiaVector min = chunk.getRegion().getMinimumPoint();
+      for (Iterator<GaiaVector> it = chunk.iterator(); it.hasNext(); ) {
+        GaiaVector real = min.add(it.next());
+        sink += real.getX() ^ real.getY() ^ real.getZ();
+      }
+    }
+  }
+
+  private static void cursor(List<GaiaChunk> chunks) {
+    for (GaiaChunk chunk : chunks) {
+      GaiaVector min = chunk.getRegion().getMinimumPoint();
+      BlockCursor cursor = chunk.cursor();
+      while (cursor.hasNext()) {
+        cursor.nextInt();
+        sink += (min.getX() + cursor.getX()) ^ (min.getY() + cursor.getY()) ^ (min.getZ() + cursor.getZ());
+      }
+    }
+  }
+
+  private static void report(String name, long blocks, Runnable round) {
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      round.run();
+    }
+    long best = Long.MAX_VALUE;
+    long allocated = threads.getThreadAllocatedBytes(thread);
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      round.run();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+    System.out.printf(Locale.ROOT, "%-8s %6.2f ns/block, %6.2f bytes/block allocated%n", name,
+      best / (double) blocks, allocated / (double) (blocks * ROUNDS));
+  }
+
+  private static List<GaiaChunk> createChunks(int amount) {
+    GaiaWorld world = new BenchmarkWorld();
+    GaiaRegion region = new GaiaRegion(GaiaVector.at(0, 0, 0), GaiaVector.at(amount * 16 - 1, 255, 15));
+    Arena arena = new Arena("benchmark", world, region);
+    List<GaiaChunk> chunks = new ArrayList<>(amount);
+    for (int i = 0; i < amount; i++) {
+      GaiaRegion chunkRegion = new GaiaRegion(GaiaVector.at(i * 16, 0, 0), GaiaVector.at(i * 16 + 15, 255, 15));
+      chunks.add(new GaiaChunk(UUID.randomUUID(), arena, chunkRegion) {
+        @Override
+        public CompletableFuture<Void> analyze(GaiaRunnableInfo info, GaiaData data) {
+          throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public CompletableFuture<Void> revert(GaiaRunnableInfo info, GaiaData data) {
+          throw new UnsupportedOperationException();
+        }
+      });
+    }
+    return chunks;
+  }
+
+  private static final class BenchmarkWorld implements GaiaWorld {
+    private final UUID uid = UUID.randomUUID();
+
+    @Override
+    public GaiaBlock getBlockAt(GaiaVector v) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public CompletableFuture<GaiaData> readBlocks(GaiaRegion region, GaiaData data) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void setBlockBatch(GaiaRegion region, GaiaData data, int[] indices, int from, int to, boolean physics) {
+      throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public String getName() {
+      return "benchmark";
+    }
+
+    @Override
+    public UUID getUID() {
+      return uid;
+    }
+  }
+}
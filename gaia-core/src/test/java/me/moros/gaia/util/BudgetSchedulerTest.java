@@ -0,0 +1,124 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BudgetSchedulerTest {
+
+  @Test
+  public void budgetIsRespected() {
+    AtomicLong time = new AtomicLong();
+    BudgetScheduler scheduler = new BudgetScheduler(1000, time::get);
+    AtomicInteger steps = new AtomicInteger();
+    scheduler.submit(() -> {
+      time.addAndGet(10); // Every step takes 10ns so a batch of 32 takes 320ns
+      return steps.incrementAndGet() < 1000;
+    });
+    scheduler.tick();
+    assertEquals(128, steps.get()); // 4 batches until the deadline is reached
+    assertEquals(1280, scheduler.getLastUsed());
+    assertEquals(1, scheduler.getPending());
+    while (scheduler.getPending() > 0) {
+      scheduler.tick();
+    }
+    assertEquals(1000, steps.get());
+  }
+
+  @Test
+  public void roundRobin() {
+    BudgetScheduler scheduler = new BudgetScheduler(Long.MAX_VALUE / 2);
+    AtomicInteger first = new AtomicInteger();
+    AtomicInteger second = new AtomicInteger();
+    scheduler.submit(() -> first.incrementAndGet() < 100);
+    scheduler.submit(() -> second.incrementAndGet() < 10);
+    scheduler.tick();
+    assertEquals(100, first.get());
+    assertEquals(10, second.get());
+    assertEquals(0, scheduler.getPending());
+  }
+
+  @Test
+  public void weightedShare() {
+    AtomicLong time = new AtomicLong();
+    BudgetScheduler scheduler = new BudgetScheduler(1000, time::get);
+    AtomicInteger light = new AtomicInteger();
+    AtomicInteger heavy = new AtomicInteger();
+    scheduler.submit(() -> {
+      time.addAndGet(1);
+      return light.incrementAndGet() < 10000;
+    });
+    scheduler.submit(() -> {
+      time.addAndGet(1);
+      return heavy.incrementAndGet() < 10000;
+    }, 3);
+    scheduler.tick();
+    assertEquals(3 * light.get(), heavy.get());
+  }
+
+  @Test
+  public void failingTasksAreDropped() {
+    BudgetScheduler scheduler = new BudgetScheduler(1_000_000);
+    scheduler.submit(() -> {
+      throw new IllegalStateException("Expected failure");
+    });
+    scheduler.tick();
+    assertEquals(0, scheduler.getPending());
+  }
+
+  @Test
+  public void failureCallback() {
+    BudgetScheduler scheduler = new BudgetScheduler(1_000_000);
+    AtomicInteger failures = new AtomicInteger();
+    scheduler.submit(new BudgetScheduler.Task() {
+      @Override
+      public boolean step() {
+        throw new IllegalStateException("Expected failure");
+      }
+
+      @Override
+      public void onFailure(RuntimeException e) {
+        failures.incrementAndGet();
+      }
+    });
+    scheduler.tick();
+    assertEquals(0, scheduler.getPending());
+    assertEquals(1, failures.get());
+  }
+
+  @Test
+  public void minimumSteps() {
+    AtomicLong time = new AtomicLong();
+    BudgetScheduler scheduler = new BudgetScheduler(BudgetController.fixed(1), 100, time::get);
+    AtomicInteger steps = new AtomicInteger();
+    scheduler.submit(() -> {
+      time.addAndGet(1000); // Every step exceeds the budget
+      return steps.incrementAndGet() < 1000;
+    });
+    scheduler.tick();
+    assertEquals(128, steps.get()); // Whole batches are run until the minimum is reached
+    assertEquals(128, scheduler.getLastSteps());
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+import java.util.UUID;
+
+import me.moros.gaia.api.GaiaRegion;
+import me.moros.gaia.api.GaiaVector;
+
+/**
+ * Compares point and overlap queries on a {@link ChunkIndex} against the linear stream over every arena
+ * that the arena manager used before the index existed.
+ * Arenas are laid out on a grid in a single world and queried with random points and regions.
+ * Reports the best time per query over several rounds and the bytes allocated per query.
+ */
+public final class ChunkIndexBenchmark {
+  private static final int WARMUP_ROUNDS = 5;
+  private static final int ROUNDS = 10;
+  private static final int SPACING = 64;
+  private static final int SIZE = 48;
+  private static final int HEIGHT = 64;
+
+  private static final UUID WORLD = UUID.randomUUID();
+
+  private static long sink;
+
+  private static final class Entry {
+    private final UUID world;
+    private final GaiaRegion region;
+    private final String name;
+
+    private Entry(UUID world, GaiaRegion region, String name) {
+      this.world = world;
+      this.region = region;
+      this.name = name;
+    }
+  }
+
+  private ChunkIndexBenchmark() {
+  }
+
+  /**
+   * @param args optionally the amount of arenas followed by the amount of queries per round, defaults to 10000 and 10000
+   */
+  public static void main(String[] args) {
+    int amount = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+    int queries = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+    int side = (int) Math.ceil(Math.sqrt(amount));
+    List<Entry> entries = new ArrayList<>(amount);
+    ChunkIndex<String> index = new ChunkIndex<>();
+    for (int i = 0; i < amount; i++) {
+      int x = (i % side) * SPACING;
+      int z = (i / side) * SPACING;
+      GaiaRegion region = new GaiaRegion(GaiaVector.at(x, 0, z), GaiaVector.at(x + SIZE - 1, HEIGHT - 1, z + SIZE - 1));
+      Entry entry = new Entry(WORLD, region, "arena" + i);
+      entries.add(entry);
+      index.add(WORLD, region, entry.name);
+    }
+    Random random = new Random(42);
+    int bound = side * SPACING;
+    GaiaVector[] points = new GaiaVector[queries];
+    GaiaRegion[] regions = new GaiaRegion[queries];
+    for (int i = 0; i < queries; i++) {
+      points[i] = GaiaVector.at(random.nextInt(bound), random.nextInt(HEIGHT), random.nextInt(bound));
+      int x = random.nextInt(bound);
+      int z = random.nextInt(bound);
+      regions[i] = new GaiaRegion(GaiaVector.at(x, 0, z), GaiaVector.at(x + 15, HEIGHT - 1, z + 15));
+    }
+    System.out.printf(Locale.ROOT, "%d arena(s), %d queries per round%n", amount, queries);
+    report("find/scan", queries, () -> {
+      for (GaiaVector point : points) {
+        sink += entries.stream().filter(e -> e.world.equals(WORLD) && e.region.contains(point))
+          .findAny().map(e -> e.name.length()).orElse(0);
+      }
+    });
+    report("find/index", queries, () -> {
+      for (GaiaVector point : points) {
+        String name = index.find(WORLD, point.getX(), point.getY(), point.getZ());
+        sink += name == null ? 0 : name.length();
+      }
+    });
+    report("overlap/scan", queries, () -> {
+      for (GaiaRegion region : regions) {
+        sink += entries.stream().noneMatch(e -> e.world.equals(WORLD) && e.region.intersects(region)) ? 1 : 0;
+      }
+    });
+    report("overlap/index", queries, () -> {
+      for (GaiaRegion region : regions) {
+        sink += index.intersects(WORLD, region) ? 0 : 1;
+      }
+    });
+  }
+
+  private static void report(String name, long queries, Runnable round) {
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    for (int i = 0; i < WARMUP_ROUNDS; i++) {
+      round.run();
+    }
+    long best = Long.MAX_VALUE;
+    long allocated = threads.getThreadAllocatedBytes(thread);
+    for (int i = 0; i < ROUNDS; i++) {
+      long start = System.nanoTime();
+      round.run();
+      best = Math.min(best, System.nanoTime() - start);
+    }
+    allocated = threads.getThreadAllocatedBytes(thread) - allocated;
+    System.out.printf(Locale.ROOT, "%-13s %10.2f ns/query, %8.2f bytes/query allocated%n", name,
+      best / (double) queries, allocated / (double) (queries * ROUNDS));
+  }
+}
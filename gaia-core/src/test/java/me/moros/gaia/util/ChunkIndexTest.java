@@ -0,0 +1,59 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.util.UUID;
+
+import me.moros.gaia.api.GaiaRegion;
+import me.moros.gaia.api.GaiaVector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ChunkIndexTest {
+  private static final UUID WORLD = UUID.randomUUID();
+
+  @Test
+  public void pointQueries() {
+    ChunkIndex<String> index = new ChunkIndex<>();
+    index.add(WORLD, new GaiaRegion(GaiaVector.at(-20, 0, -20), GaiaVector.at(20, 64, 20)), "center");
+    index.add(WORLD, new GaiaRegion(GaiaVector.at(21, 0, 0), GaiaVector.at(40, 10, 5)), "east");
+    assertEquals("center", index.find(WORLD, -20, 0, -20));
+    assertEquals("center", index.find(WORLD, 20, 64, 20));
+    assertEquals("east", index.find(WORLD, 21, 5, 5));
+    assertNull(index.find(WORLD, 21, 11, 5));
+    assertNull(index.find(WORLD, -21, 0, 0));
+    assertNull(index.find(UUID.randomUUID(), 0, 0, 0));
+  }
+
+  @Test
+  public void intersections() {
+    ChunkIndex<String> index = new ChunkIndex<>();
+    GaiaRegion region = new GaiaRegion(GaiaVector.at(0, 0, 0), GaiaVector.at(100, 100, 100));
+    index.add(WORLD, region, "arena");
+    assertTrue(index.intersects(WORLD, new GaiaRegion(GaiaVector.at(-10, 50, -10), GaiaVector.at(0, 60, 0))));
+    assertFalse(index.intersects(WORLD, new GaiaRegion(GaiaVector.at(-10, 50, -10), GaiaVector.at(-1, 60, 0))));
+    assertFalse(index.intersects(WORLD, new GaiaRegion(GaiaVector.at(10, 101, 10), GaiaVector.at(20, 120, 20))));
+    assertFalse(index.intersects(UUID.randomUUID(), region));
+    index.remove(WORLD, region, "arena");
+    assertFalse(index.intersects(WORLD, region));
+    assertNull(index.find(WORLD, 50, 50, 50));
+  }
+}
@@ -0,0 +1,71 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import me.moros.gaia.api.Coordinates;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CoordinatesTest {
+  private static final int[] XZ = {0, 1, -1, 15, -16, 29_999_999, -29_999_999};
+  private static final int[] Y = {0, 1, 255, 2047, -64, -2048};
+
+  @Test
+  public void blockKeys() {
+    for (int x : XZ) {
+      for (int y : Y) {
+        for (int z : XZ) {
+          long key = Coordinates.block(x, y, z);
+          assertEquals(x, Coordinates.blockX(key));
+          assertEquals(y, Coordinates.blockY(key));
+          assertEquals(z, Coordinates.blockZ(key));
+        }
+      }
+    }
+    assertNotEquals(Coordinates.block(1, 2, 3), Coordinates.block(3, 2, 1));
+  }
+
+  @Test
+  public void sectionKeys() {
+    for (int x : XZ) {
+      for (int y : Y) {
+        for (int z : XZ) {
+          long key = Coordinates.sectionAt(x, y, z);
+          assertEquals(x >> 4, Coordinates.sectionX(key));
+          assertEquals(y >> 4, Coordinates.sectionY(key));
+          assertEquals(z >> 4, Coordinates.sectionZ(key));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void chunkKeys() {
+    for (int x : XZ) {
+      for (int z : XZ) {
+        long key = Coordinates.chunkAt(x, z);
+        assertEquals(x >> 4, Coordinates.chunkX(key));
+        assertEquals(z >> 4, Coordinates.chunkZ(key));
+      }
+    }
+    assertEquals(Coordinates.chunk(Integer.MIN_VALUE, Integer.MAX_VALUE), ((long) Integer.MAX_VALUE << 32) | 0x80000000L);
+  }
+}
@@ -0,0 +1,80 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import me.moros.gaia.api.GaiaRegion;
+import me.moros.gaia.api.GaiaVector;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DirtyBlockSetTest {
+
+  @Test
+  public void addAndContains() {
+    DirtyBlockSet set = new DirtyBlockSet(16);
+    assertTrue(set.add(-1, 64, -17));
+    assertTrue(set.add(-1, 64, -17));
+    assertTrue(set.add(15, 255, 0));
+    assertEquals(2, set.size());
+    assertTrue(set.contains(-1, 64, -17));
+    assertTrue(set.contains(15, 255, 0));
+    assertFalse(set.contains(-1, 65, -17));
+    assertFalse(set.contains(31, 255, 0));
+  }
+
+  @Test
+  public void overflow() {
+    DirtyBlockSet set = new DirtyBlockSet(2);
+    assertTrue(set.add(0, 0, 0));
+    assertTrue(set.add(1, 0, 0));
+    assertTrue(set.add(1, 0, 0));
+    assertFalse(set.add(2, 0, 0));
+    assertTrue(set.isOverflowed());
+    assertFalse(set.contains(0, 0, 0));
+  }
+
+  @Test
+  public void outsideRegion() {
+    DirtyBlockSet set = new DirtyBlockSet(16);
+    set.add(-16, 10, 5);
+    set.add(-10, 40, 15);
+    set.add(-1, 100, 0);
+    set.add(0, 10, 5); // Outside the region
+    set.add(-10, 9, 5); // Below the region
+    GaiaRegion region = new GaiaRegion(GaiaVector.at(-16, 10, 0), GaiaVector.at(-1, 100, 15));
+    assertArrayEquals(new int[]{80, 7926, 23055}, set.getIndices(region));
+  }
+
+  @Test
+  public void indices() {
+    DirtyBlockSet set = new DirtyBlockSet(16);
+    set.add(-1, 100, 0);
+    set.add(-16, 10, 5);
+    set.add(-10, 40, 15);
+    set.add(0, 10, 5); // Outside the region
+    GaiaRegion region = new GaiaRegion(GaiaVector.at(-16, 10, 0), GaiaVector.at(-1, 100, 15));
+    int[] indices = set.getIndices(region);
+    assertEquals(3, indices.length);
+    assertEquals((0 * 16 + 5) * 16, indices[0]);
+    assertEquals((30 * 16 + 15) * 16 + 6, indices[1]);
+    assertEquals((90 * 16) * 16 + 15, indices[2]);
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import me.moros.gaia.api.GaiaData;
+import me.moros.gaia.api.GaiaVector;
+import me.moros.gaia.platform.GaiaBlockData;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GaiaDataTest {
+
+  @Test
+  public void paletteGrowth() {
+    GaiaData data = new GaiaData(GaiaVector.at(16, 16, 16));
+    GaiaBlockData[] states = new GaiaBlockData[300];
+    for (int i = 0; i < states.length; i++) {
+      String value = "state" + i;
+      states[i] = () -> value;
+    }
+    for (int y = 0; y < 16; y++) {
+      for (int z = 0; z < 16; z++) {
+        for (int x = 0; x < 16; x++) {
+          data.setDataAt(x, y, z, states[data.index(x, y, z) % states.length]);
+        }
+      }
+    }
+    assertEquals(states.length, data.getPalette().size());
+    for (int y = 0; y < 16; y++) {
+      for (int z = 0; z < 16; z++) {
+        for (int x = 0; x < 16; x++) {
+          assertSame(states[data.index(x, y, z) % states.length], data.getDataAt(x, y, z));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void emptyPalette() {
+    GaiaData data = new GaiaData(GaiaVector.at(2, 2, 2));
+    assertNull(data.getDataAt(0, 0, 0));
+    assertNull(data.getDataAt(GaiaVector.at(1, 1, 1)));
+    GaiaBlockData stone = () -> "stone";
+    data.setDataAt(1, 1, 1, stone);
+    assertSame(stone, data.getDataAt(0, 0, 0));
+  }
+
+  @Test
+  public void index() {
+    GaiaData data = new GaiaData(GaiaVector.at(3, 4, 5));
+    assertEquals(0, data.index(0, 0, 0));
+    assertEquals(1, data.index(1, 0, 0));
+    assertEquals(3, data.index(0, 0, 1));
+    assertEquals(15, data.index(0, 1, 0));
+    assertEquals(data.getVolume() - 1, data.index(2, 3, 4));
+  }
+
+  @Test
+  public void sections() {
+    GaiaData data = new GaiaData(GaiaVector.at(2, 20, 3));
+    GaiaBlockData stone = () -> "stone";
+    GaiaBlockData air = () -> "air";
+    data.getOrCreatePaletteId(air);
+    assertEquals(2, data.getSectionCount());
+    assertEquals(0, data.getSectionStart(0));
+    assertEquals(96, data.getSectionEnd(0));
+    assertEquals(data.getVolume(), data.getSectionEnd(1));
+    assertEquals(0, data.getUniformPaletteId(0));
+    data.setDataAt(1, 17, 2, stone);
+    assertEquals(0, data.getUniformPaletteId(0));
+    assertEquals(-1, data.getUniformPaletteId(1));
+    data.fillSection(1, 1);
+    assertEquals(1, data.getUniformPaletteId(1));
+    assertSame(stone, data.getDataAt(0, 16, 0));
+    assertSame(air, data.getDataAt(1, 15, 2));
+  }
+
+  @Test
+  public void alignedSections() {
+    GaiaData data = new GaiaData(GaiaVector.at(2, 20, 3));
+    data.alignSections(70);
+    assertEquals(6, data.getSectionOffset());
+    assertEquals(2, data.getSectionCount());
+    assertEquals(10, data.getSectionLayer(1));
+    assertEquals(60, data.getSectionEnd(0));
+    assertEquals(data.getVolume(), data.getSectionEnd(1));
+    data.alignSections(-3);
+    assertEquals(13, data.getSectionOffset());
+    assertEquals(3, data.getSectionCount());
+    assertEquals(3, data.getSectionLayer(1));
+    assertEquals(19, data.getSectionLayer(2));
+    assertEquals(20, data.getSectionLayer(3));
+    data.alignSections(64);
+    assertEquals(2, data.getSectionCount());
+    assertEquals(96, data.getSectionStart(1));
+  }
+}
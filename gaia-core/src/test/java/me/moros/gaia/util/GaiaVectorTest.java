@@ -64,4 +64,21 @@ class GaiaVectorTest {
     assertNotEquals(a, c);
     assertNotEquals(null, a);
   }
+
+  @Test
+  public void hashCodeMatchesEquals() {
+    GaiaVector a = GaiaVector.at(1, 1, 1);
+    GaiaVector b = GaiaVector.ONE;
+    GaiaVector c = GaiaVector.at(-5, 70, 12).add(6, -69, -11);
+    assertEquals(a.hashCode(), b.hashCode());
+    assertEquals(a.hashCode(), c.hashCode());
+    assertNotEquals(GaiaVector.at(1, 2, 3).hashCode(), GaiaVector.at(3, 2, 1).hashCode());
+  }
+
+  @Test
+  public void blockKey() {
+    GaiaVector a = GaiaVector.at(-29_999_999, 255, 123_456);
+    assertEquals(a, GaiaVector.fromBlockKey(a.toBlockKey()));
+    assertEquals(GaiaVector.ZERO, GaiaVector.fromBlockKey(0));
+  }
 }
@@ -0,0 +1,68 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LongObjectMapTest {
+
+  @Test
+  public void basicOperations() {
+    LongObjectMap<String> map = new LongObjectMap<>();
+    assertTrue(map.isEmpty());
+    assertNull(map.put(5, "a"));
+    assertEquals("a", map.put(5, "b"));
+    assertEquals("b", map.get(5));
+    assertEquals("c", map.computeIfAbsent(-1, k -> "c"));
+    assertEquals("c", map.computeIfAbsent(-1, k -> "d"));
+    assertEquals(2, map.size());
+    assertEquals("b", map.remove(5));
+    assertNull(map.remove(5));
+    assertFalse(map.containsKey(5));
+    map.clear();
+    assertTrue(map.isEmpty());
+    assertNull(map.get(-1));
+  }
+
+  @Test
+  public void matchesHashMap() {
+    Random random = new Random(42);
+    LongObjectMap<Long> map = new LongObjectMap<>(4);
+    Map<Long, Long> expected = new HashMap<>();
+    for (int i = 0; i < 100_000; i++) {
+      long key = random.nextInt(2048) - 1024L;
+      if (random.nextInt(3) == 0) {
+        assertEquals(expected.remove(key), map.remove(key));
+      } else {
+        assertEquals(expected.put(key, key * 2), map.put(key, key * 2));
+      }
+    }
+    assertEquals(expected.size(), map.size());
+    for (long key = -1024; key < 1024; key++) {
+      assertEquals(expected.get(key), map.get(key));
+    }
+  }
+}
@@ -0,0 +1,101 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RevertQueueTest {
+  private final AtomicLong time = new AtomicLong();
+  private final List<String> started = new ArrayList<>();
+  private final Map<String, CompletableFuture<Void>> futures = new HashMap<>();
+  private final Map<String, Integer> weights = new HashMap<>();
+
+  private CompletableFuture<Void> submit(RevertQueue queue, String name, int priority, long blocks) {
+    return queue.submit(name, priority, blocks, weight -> {
+      started.add(name);
+      weights.put(name, weight);
+      CompletableFuture<Void> future = new CompletableFuture<>();
+      futures.put(name, future);
+      return future;
+    });
+  }
+
+  @Test
+  public void priorityAndShortestJobFirst() {
+    RevertQueue queue = new RevertQueue(1, 1000, Runnable::run, time::get);
+    submit(queue, "first", 0, 100000);
+    submit(queue, "large", 0, 50000);
+    submit(queue, "small", 0, 500);
+    submit(queue, "crowded", 2, 80000);
+    assertEquals(List.of("first"), started);
+    assertEquals(4, queue.size());
+    futures.get("first").complete(null);
+    futures.get("crowded").complete(null);
+    futures.get("small").complete(null);
+    futures.get("large").complete(null);
+    assertEquals(List.of("first", "crowded", "small", "large"), started);
+    assertEquals(1, weights.get("first").intValue());
+    assertEquals(3, weights.get("crowded").intValue());
+    assertEquals(0, queue.size());
+  }
+
+  @Test
+  public void cancellation() {
+    RevertQueue queue = new RevertQueue(1, 0, Runnable::run, time::get);
+    CompletableFuture<Void> first = submit(queue, "first", 0, 10);
+    CompletableFuture<Void> second = submit(queue, "second", 0, 10);
+    assertTrue(queue.cancel("second"));
+    assertTrue(second.isCancelled());
+    first.cancel(false);
+    assertTrue(futures.get("first").isCancelled());
+    assertEquals(0, queue.size());
+    assertFalse(queue.cancel("first"));
+    assertEquals(List.of("first"), started);
+  }
+
+  @Test
+  public void estimates() {
+    RevertQueue queue = new RevertQueue(1, 0, Runnable::run, time::get);
+    submit(queue, "first", 0, 1000);
+    submit(queue, "second", 0, 2000);
+    assertEquals(-1, queue.getEntries().get(1).getEta());
+    time.addAndGet(100);
+    futures.get("first").complete(null);
+    assertEquals(10, queue.getThroughput(), 1e-9);
+    time.addAndGet(50);
+    List<RevertQueue.Entry> entries = queue.getEntries();
+    assertEquals(1, entries.size());
+    assertTrue(entries.get(0).isRunning());
+    assertEquals(150, entries.get(0).getEta());
+    submit(queue, "third", 0, 500);
+    entries = queue.getEntries();
+    assertEquals(1, entries.get(1).getPosition());
+    assertEquals(200, entries.get(1).getEta());
+  }
+}
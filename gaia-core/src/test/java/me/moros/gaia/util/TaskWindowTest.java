@@ -0,0 +1,91 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TaskWindowTest {
+
+  @Test
+  public void windowIsRespected() {
+    List<CompletableFuture<Void>> started = new ArrayList<>();
+    List<Supplier<CompletableFuture<Void>>> tasks = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      tasks.add(() -> {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        started.add(future);
+        return future;
+      });
+    }
+    CompletableFuture<Void> result = TaskWindow.run(tasks, 3);
+    assertEquals(3, started.size());
+    started.get(1).complete(null);
+    assertEquals(4, started.size());
+    for (int i = 0; i < started.size(); i++) {
+      started.get(i).complete(null);
+    }
+    assertEquals(10, started.size());
+    assertTrue(result.isDone());
+    assertFalse(result.isCompletedExceptionally());
+  }
+
+  @Test
+  public void completedTasks() {
+    AtomicInteger count = new AtomicInteger();
+    List<Supplier<CompletableFuture<Void>>> tasks = new ArrayList<>();
+    for (int i = 0; i < 5000; i++) {
+      tasks.add(() -> {
+        count.incrementAndGet();
+        return CompletableFuture.completedFuture(null);
+      });
+    }
+    assertTrue(TaskWindow.run(tasks, 2).isDone());
+    assertEquals(5000, count.get());
+    assertTrue(TaskWindow.run(new ArrayList<Supplier<CompletableFuture<Void>>>(), 2).isDone());
+  }
+
+  @Test
+  public void cancellationStopsAdmission() {
+    List<CompletableFuture<Void>> started = new ArrayList<>();
+    List<Supplier<CompletableFuture<Void>>> tasks = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      tasks.add(() -> {
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        started.add(future);
+        return future;
+      });
+    }
+    CompletableFuture<Void> result = TaskWindow.run(tasks, 2);
+    started.get(0).cancel(false);
+    assertTrue(result.isCancelled());
+    started.get(1).complete(null);
+    assertEquals(2, started.size());
+    assertThrows(CancellationException.class, result::join);
+  }
+}
@@ -19,7 +19,19 @@
 
 package me.moros.gaia;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
 
 import com.sk89q.worldedit.IncompleteRegionException;
 import com.sk89q.worldedit.WorldEdit;
@@ -30,35 +42,108 @@ import me.moros.gaia.api.Arena;
 import me.moros.gaia.api.GaiaChunk;
 import me.moros.gaia.api.GaiaRegion;
 import me.moros.gaia.api.GaiaVector;
+import me.moros.gaia.configuration.ConfigManager;
 import me.moros.gaia.io.GaiaIO;
 import me.moros.gaia.locale.Message;
 import me.moros.gaia.platform.GaiaPlayer;
 import me.moros.gaia.platform.PlayerWrapper;
 import me.moros.gaia.platform.WorldWrapper;
+import me.moros.gaia.util.DirtyBlockSet;
+import me.moros.gaia.util.RevertQueue;
+import me.moros.gaia.util.TaskWindow;
 import me.moros.gaia.util.functional.GaiaConsumerInfo;
 import me.moros.gaia.util.metadata.ArenaMetadata;
 import org.bukkit.Bukkit;
+import org.bukkit.Location;
 import org.bukkit.entity.Player;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 public class ArenaManager extends GaiaArenaManager {
+  private static final Executor MAIN = r -> Bukkit.getScheduler().runTask(Gaia.getPlugin(), r);
+
+  public ArenaManager() {
+    super(new RevertQueue(ConfigManager.INSTANCE.getConcurrentArenas(), ConfigManager.INSTANCE.getSmallJobBlocks(), MAIN, System::currentTimeMillis));
+  }
+
+  /**
+   * {@inheritDoc}
+   * Arenas with players inside them are started first and receive a larger share of the tick budget.
+   */
   @Override
-  public void revertArena(@NonNull Arena arena, @NonNull GaiaConsumerInfo info) {
+  public @NonNull CompletableFuture<Void> revertArena(@NonNull Arena arena, @NonNull GaiaConsumerInfo info) {
     arena.setReverting(true);
-    arena.getSubRegions().forEach(gcr -> PaperGaiaChunk.revertChunk(gcr, arena.getWorld()));
-    Bukkit.getScheduler().runTaskTimer(Gaia.getPlugin(), l -> {
-      if (!arena.isReverting()) {
+    final DirtyBlockSet changes = arena.getChanges();
+    final long blocks = changes != null && !changes.isOverflowed() ? changes.size() : arena.getRegion().getVolume();
+    final CompletableFuture<Void> result = getRevertQueue().submit(arena.getName(), countPlayersInside(arena), blocks, weight -> {
+      info.setWeight(weight);
+      return startRevert(arena, info);
+    });
+    result.whenCompleteAsync((ignored, t) -> {
+      final Throwable cause = t instanceof CompletionException ? t.getCause() : t;
+      if (cause instanceof CancellationException) {
+        // Cancelling the returned future has to reach the chunks that are still reverting
+        if (arena.isReverting()) cancelRevertArena(arena);
         Message.CANCEL_SUCCESS.send(info.user, arena.getFormattedName());
-        l.cancel();
-      } else {
-        if (arena.getSubRegions().stream().noneMatch(GaiaChunk::isReverting)) {
-          final long deltaTime = System.currentTimeMillis() - info.startTime;
-          Message.FINISHED_REVERT.send(info.user, arena.getFormattedName(), String.valueOf(deltaTime));
-          arena.setReverting(false);
-          l.cancel();
+        return;
+      }
+      if (cause != null) {
+        cancelRevertArena(arena);
+        cause.printStackTrace();
+        Message.REVERT_FAIL.send(info.user, arena.getFormattedName());
+        return;
+      }
+      arena.setReverting(false);
+      final long deltaTime = System.currentTimeMillis() - info.startTime;
+      Message.FINISHED_REVERT.send(info.user, arena.getFormattedName(), String.valueOf(deltaTime));
+      Message.REVERT_SUMMARY.send(info.user, String.valueOf(info.changedBlocks.sum()), String.valueOf(info.skippedBlocks.sum()));
+      if (ConfigManager.INSTANCE.isDebug()) {
+        Gaia.getPlugin().getLog().info("Block data cache: " + Gaia.getPlugin().getBlockDataCache());
+        Gaia.getPlugin().getLog().info("Snapshot cache: " + GaiaIO.getInstance().getSnapshotCache());
+        Gaia.getPlugin().getLog().info("Scheduler: " + Gaia.getPlugin().getScheduler());
+        Gaia.getPlugin().getLog().info("Chunks: " + info.loadedChunks.sum() + " loaded, " + info.cachedChunks.sum() + " already loaded, "
+          + Gaia.getPlugin().getChunkTickets().size() + " held");
+      }
+    }, MAIN);
+    return result;
+  }
+
+  /**
+   * Starts reverting an arena once it leaves the revert queue. If changes to the arena have been tracked since
+   * it was last reverted, only the changed blocks are restored. Otherwise every block in the arena is restored.
+   * Chunks closest to players are reverted first and only a limited amount of chunks is loaded and reverted at once.
+   */
+  private @NonNull CompletableFuture<Void> startRevert(@NonNull Arena arena, @NonNull GaiaConsumerInfo info) {
+    final List<Supplier<CompletableFuture<Void>>> tasks = new ArrayList<>();
+    final DirtyBlockSet changes = arena.getChanges();
+    if (changes != null && !changes.isOverflowed()) {
+      if (ConfigManager.INSTANCE.isDebug()) {
+        Gaia.getPlugin().getLog().info("Reverting " + changes.size() + " changed blocks in " + arena.getName());
+      }
+      for (GaiaChunk chunk : sortByProximity(arena)) {
+        int[] indices = changes.getIndices(chunk.getRegion());
+        info.changedBlocks.add(indices.length);
+        info.skippedBlocks.add(chunk.getRegion().getVolume() - indices.length);
+        if (indices.length > 0) {
+          tasks.add(() -> startIfReverting(arena, () -> PaperGaiaChunk.revertChunk(chunk, arena.getWorld(), Arrays.stream(indices).iterator(), info)));
         }
       }
-    }, 1, 1);
+    } else {
+      for (GaiaChunk chunk : sortByProximity(arena)) {
+        tasks.add(() -> startIfReverting(arena, () -> PaperGaiaChunk.revertChunk(chunk, arena.getWorld(), info)));
+      }
+    }
+    // Changes made from now on are tracked against the restored state
+    if (ConfigManager.INSTANCE.isTrackingEnabled()) arena.startTracking(ConfigManager.INSTANCE.getTrackingCapacity());
+    return TaskWindow.run(tasks, ConfigManager.INSTANCE.getConcurrentChunks());
+  }
+
+  private static int countPlayersInside(@NonNull Arena arena) {
+    int count = 0;
+    for (Player player : ((WorldWrapper) arena.getWorld()).get().getPlayers()) {
+      final Location loc = player.getLocation();
+      if (arena.getRegion().contains(GaiaVector.at(loc.getBlockX(), loc.getBlockY(), loc.getBlockZ()))) count++;
+    }
+    return count;
   }
 
   @Override
@@ -107,29 +192,69 @@ public class ArenaManager extends GaiaArenaManager {
       return false;
     }
     arena.setMetadata(new ArenaMetadata(arena));
+    if (ConfigManager.INSTANCE.isTrackingEnabled()) arena.startTracking(ConfigManager.INSTANCE.getTrackingCapacity());
     final long timeout = Gaia.getPlugin().getConfig().getLong("Analysis.Timeout");
-    Bukkit.getScheduler().runTaskTimer(Gaia.getPlugin(), l -> {
-      if (System.currentTimeMillis() > info.startTime + timeout) {
+    final CompletableFuture<?>[] futures = arena.getSubRegions().stream()
+      .map(c -> PaperGaiaChunk.analyzeChunk(c, world)).toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(futures).orTimeout(timeout, TimeUnit.MILLISECONDS).whenCompleteAsync((ignored, t) -> {
+      if (t != null || !arena.finalizeArena()) {
+        if (t != null && ConfigManager.INSTANCE.isDebug()) t.printStackTrace();
         Message.CREATE_FAIL.send(user, arena.getFormattedName());
-        removeArena(arena.getName());
-        l.cancel();
-      } else {
-        if (arena.getSubRegions().stream().allMatch(GaiaChunk::isAnalyzed) && arena.finalizeArena()) {
-          Bukkit.getScheduler().runTaskAsynchronously(Gaia.getPlugin(), () -> {
-            if (GaiaIO.getInstance().saveArena((ArenaMetadata) arena.getMetadata())) {
-              Message.CREATE_SUCCESS.send(user, arena.getFormattedName());
-            } else {
-              Message.CREATE_FAIL.send(user, arena.getFormattedName());
-            }
-          });
-          l.cancel();
-        }
+        // Chunks that are still being analyzed would save into the deleted arena, so it is only removed once all have settled
+        arena.getSubRegions().forEach(GaiaChunk::cancelAnalysis);
+        CompletableFuture.allOf(futures).whenCompleteAsync((i, e) -> removeArena(arena.getName()), MAIN);
+        return;
       }
-    }, 1, 1);
+      Bukkit.getScheduler().runTaskAsynchronously(Gaia.getPlugin(), () -> {
+        if (GaiaIO.getInstance().saveArena((ArenaMetadata) arena.getMetadata())) {
+          Message.CREATE_SUCCESS.send(user, arena.getFormattedName());
+        } else {
+          Message.CREATE_FAIL.send(user, arena.getFormattedName());
+        }
+      });
+    }, MAIN);
     addArena(arena);
     return true;
   }
 
+  private static @NonNull CompletableFuture<Void> startIfReverting(@NonNull Arena arena, @NonNull Supplier<CompletableFuture<Void>> revert) {
+    if (arena.isReverting()) return revert.get();
+    final CompletableFuture<Void> cancelled = new CompletableFuture<>();
+    cancelled.cancel(false);
+    return cancelled;
+  }
+
+  /**
+   * Orders the chunks of an arena by their horizontal distance to the closest player in the same world.
+   * @param arena the arena
+   * @return a new list with the sub regions of the arena, closest first
+   */
+  private static @NonNull List<GaiaChunk> sortByProximity(@NonNull Arena arena) {
+    final List<GaiaChunk> chunks = new ArrayList<>(arena.getSubRegions());
+    final List<Player> players = ((WorldWrapper) arena.getWorld()).get().getPlayers();
+    if (players.isEmpty()) return chunks;
+    final double[] xs = new double[players.size()];
+    final double[] zs = new double[players.size()];
+    for (int i = 0; i < xs.length; i++) {
+      xs[i] = players.get(i).getLocation().getX();
+      zs[i] = players.get(i).getLocation().getZ();
+    }
+    final Map<GaiaChunk, Double> distances = new HashMap<>(chunks.size());
+    for (GaiaChunk chunk : chunks) {
+      final double centerX = chunk.getRegion().getMinimumPoint().getX() + chunk.getRegion().getVector().getX() / 2.0;
+      final double centerZ = chunk.getRegion().getMinimumPoint().getZ() + chunk.getRegion().getVector().getZ() / 2.0;
+      double min = Double.MAX_VALUE;
+      for (int i = 0; i < xs.length; i++) {
+        final double dx = xs[i] - centerX;
+        final double dz = zs[i] - centerZ;
+        min = Math.min(min, dx * dx + dz * dz);
+      }
+      distances.put(chunk, min);
+    }
+    chunks.sort(Comparator.comparingDouble(distances::get));
+    return chunks;
+  }
+
   public static boolean splitIntoChunks(@NonNull Arena arena) {
     final int minX = arena.getRegion().getMinimumPoint().getX();
     final int maxX = arena.getRegion().getMaximumPoint().getX();
@@ -146,8 +271,7 @@ public class ArenaManager extends GaiaArenaManager {
         tempZ = z * 16;
         v1 = GaiaVector.atXZClamped(tempX, minY, tempZ, minX, maxX, minZ, maxZ);
         v2 = GaiaVector.atXZClamped(tempX + 15, maxY, tempZ + 15, minX, maxX, minZ, maxZ);
-        final PaperGaiaChunk chunkRegion = Gaia.getPlugin().adaptChunk(UUID.randomUUID(), arena, new GaiaRegion(v1, v2));
-        PaperGaiaChunk.analyzeChunk(chunkRegion, arena.getWorld());
+        Gaia.getPlugin().adaptChunk(UUID.randomUUID(), arena, new GaiaRegion(v1, v2));
       }
     }
     return !arena.getSubRegions().isEmpty();
@@ -32,13 +32,18 @@ import me.moros.gaia.api.GaiaRegion;
 import me.moros.gaia.commands.GaiaCommand;
 import me.moros.gaia.configuration.ConfigManager;
 import me.moros.gaia.io.GaiaIO;
+import me.moros.gaia.listeners.TickListener;
+import me.moros.gaia.listeners.TrackingListener;
 import me.moros.gaia.locale.TranslationManager;
 import me.moros.gaia.platform.BlockDataWrapper;
+import me.moros.gaia.platform.ChunkTickets;
 import me.moros.gaia.platform.GaiaPlayer;
 import me.moros.gaia.platform.GaiaUser;
 import me.moros.gaia.platform.PlayerWrapper;
 import me.moros.gaia.platform.UserWrapper;
 import me.moros.gaia.platform.WorldWrapper;
+import me.moros.gaia.util.BudgetScheduler;
+import me.moros.gaia.util.InternCache;
 import me.moros.gaia.util.Util;
 import org.bstats.bukkit.Metrics;
 import org.bukkit.Bukkit;
@@ -51,9 +56,15 @@ import org.checkerframework.checker.nullness.qual.NonNull;
 import org.checkerframework.checker.nullness.qual.Nullable;
 
 public class Gaia extends JavaPlugin implements GaiaPlugin {
+  private static final int BLOCK_CACHE_CAPACITY = 32768; // Enough to fit every vanilla block state
+  private static final String AIR_KEY = "minecraft:air";
+
   private static Gaia plugin;
+  private final InternCache<String, BlockDataWrapper> blockDataCache = new InternCache<>(BLOCK_CACHE_CAPACITY);
   private PaperCommandManager commandManager;
   private ArenaManager arenaManager;
+  private BudgetScheduler scheduler;
+  private ChunkTickets chunkTickets;
   private String author;
   private String version;
   private Logger log;
@@ -71,14 +82,21 @@ public class Gaia extends JavaPlugin implements GaiaPlugin {
     new TranslationManager(log, getDataFolder().toString());
 
     arenaManager = new ArenaManager();
+    chunkTickets = new ChunkTickets(this);
+    scheduler = new BudgetScheduler(ConfigManager.INSTANCE.createBudgetController(), ConfigManager.INSTANCE.getMinStepsPerTick());
+    getServer().getScheduler().runTaskTimer(this, scheduler::tick, 1, 1);
+    getServer().getPluginManager().registerEvents(new TickListener(scheduler), this);
     boolean debug = getConfig().getBoolean("Debug");
     if (debug) getLog().info("Debugging is enabled");
-    if (!GaiaIO.createInstance(plugin, getDataFolder().getPath(), debug)) {
+    if (!GaiaIO.createInstance(plugin, getDataFolder().getPath(), debug, ConfigManager.INSTANCE.getStorageOptions())) {
       getLog().severe("Could not create Arenas folder! Aborting plugin load.");
       plugin.setEnabled(false);
       return;
     }
     Bukkit.getScheduler().runTaskAsynchronously(Gaia.getPlugin(), GaiaIO.getInstance()::loadAllArenas);
+    if (ConfigManager.INSTANCE.isTrackingEnabled()) {
+      getServer().getPluginManager().registerEvents(new TrackingListener(arenaManager), this);
+    }
     registerCommands();
   }
 
@@ -116,17 +134,31 @@ public class Gaia extends JavaPlugin implements GaiaPlugin {
     return new PaperGaiaChunk(id, parent, region);
   }
 
+  public @NonNull BudgetScheduler getScheduler() {
+    return scheduler;
+  }
+
+  public @NonNull ChunkTickets getChunkTickets() {
+    return chunkTickets;
+  }
+
+  public @NonNull InternCache<String, BlockDataWrapper> getBlockDataCache() {
+    return blockDataCache;
+  }
+
   @Override
   public @NonNull BlockDataWrapper getBlockDataFromString(final String value) {
-    if (value != null) {
-      try {
-        BlockData data = Bukkit.createBlockData(value);
-        return new BlockDataWrapper(data);
-      } catch (IllegalArgumentException e) {
-        log.warning("Invalid block data in palette: " + value + ". Block will be replaced with air.");
-      } catch (Exception other) {
-        // do nothing
-      }
+    return blockDataCache.get(value == null ? AIR_KEY : value, this::parseBlockData);
+  }
+
+  private @NonNull BlockDataWrapper parseBlockData(final String value) {
+    try {
+      BlockData data = Bukkit.createBlockData(value);
+      return new BlockDataWrapper(data);
+    } catch (IllegalArgumentException e) {
+      log.warning("Invalid block data in palette: " + value + ". Block will be replaced with air.");
+    } catch (Exception other) {
+      // do nothing
     }
     return new BlockDataWrapper(Material.AIR.createBlockData());
   }
@@ -19,8 +19,12 @@
 
 package me.moros.gaia;
 
-import java.util.Iterator;
+import java.util.Arrays;
+import java.util.PrimitiveIterator;
 import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
 import me.moros.gaia.api.Arena;
 import me.moros.gaia.api.GaiaChunk;
@@ -29,75 +33,231 @@ import me.moros.gaia.api.GaiaRegion;
 import me.moros.gaia.api.GaiaVector;
 import me.moros.gaia.configuration.ConfigManager;
 import me.moros.gaia.io.GaiaIO;
+import me.moros.gaia.platform.BlockDataWrapper;
 import me.moros.gaia.platform.GaiaWorld;
 import me.moros.gaia.platform.WorldWrapper;
+import me.moros.gaia.util.BudgetScheduler;
+import me.moros.gaia.util.functional.GaiaConsumerInfo;
 import me.moros.gaia.util.functional.GaiaRunnableInfo;
 import me.moros.gaia.util.metadata.ArenaMetadata;
 import me.moros.gaia.util.metadata.ChunkMetadata;
 import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
+import org.bukkit.Material;
+import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 public class PaperGaiaChunk extends GaiaChunk {
+  public static final int BLOCKS_PER_STEP = 16;
+
+  private static final Executor MAIN = r -> Bukkit.getScheduler().runTask(Gaia.getPlugin(), r);
+  private static final Executor ASYNC = r -> Bukkit.getScheduler().runTaskAsynchronously(Gaia.getPlugin(), r);
+
   protected PaperGaiaChunk(@NonNull UUID id, Arena parent, @NonNull GaiaRegion region) {
     super(id, parent, region);
   }
 
+  /**
+   * {@inheritDoc}
+   * The chunk is captured in a single snapshot on the main thread and all per-block work happens asynchronously.
+   * If the analysis is cancelled before the blocks are read, nothing is saved and the future completes as cancelled.
+   */
   @Override
-  public void analyze(@NonNull GaiaRunnableInfo info, @NonNull GaiaData data) {
-    ((WorldWrapper) info.world).get().getChunkAtAsync(getX(), getZ()).thenRun(() -> {
-      GaiaVector relative, real;
-      int counter = 0;
-      while (++counter <= info.maxTransactions && info.it.hasNext()) {
-        relative = info.it.next();
-        real = getRegion().getMinimumPoint().add(relative);
-        data.setDataAt(relative, info.world.getBlockAt(real).getBlockData());
-      }
-      if (info.it.hasNext()) {
-        Bukkit.getScheduler().runTaskLater(Gaia.getPlugin(), () -> analyze(info, data), 1);
-      } else {
-        Bukkit.getScheduler().runTaskAsynchronously(Gaia.getPlugin(), () -> {
-          String hash = GaiaIO.getInstance().saveData(this, data);
-          if (!hash.isEmpty())
-            ((ArenaMetadata) getParent().getMetadata()).chunks.add((ChunkMetadata) getMetadata());
-        });
+  public @NonNull CompletableFuture<Void> analyze(@NonNull GaiaRunnableInfo info, @NonNull GaiaData data) {
+    return info.world.readBlocks(getRegion(), data).thenAccept(result -> {
+      if (isAnalysisCancelled()) throw new CancellationException();
+      String hash = GaiaIO.getInstance().saveData(this, result);
+      if (hash.isEmpty()) throw new IllegalStateException("Could not save data for chunk " + getId());
+      ArenaMetadata meta = (ArenaMetadata) getParent().getMetadata();
+      synchronized (meta) { // Chunks of the same arena are saved concurrently
+        meta.chunks.add((ChunkMetadata) getMetadata());
       }
     });
   }
 
+  /**
+   * {@inheritDoc}
+   * Blocks are written in batches of up to {@link #BLOCKS_PER_STEP} per scheduler step, physics are applied if enabled in the config.
+   * If the chunk can't be loaded or a step fails, the revert future of this chunk completes exceptionally.
+   * If the chunk is already loaded, for example because it is held for the revert, it is not requested again.
+   */
   @Override
-  public void revert(@NonNull GaiaRunnableInfo info, @NonNull GaiaData data) {
-    if (!isReverting()) return;
-    ((WorldWrapper) info.world).get().getChunkAtAsync(getX(), getZ()).thenRun(() -> {
-      GaiaVector relative, real;
-      int counter = 0;
-      while (++counter <= info.maxTransactions && info.it.hasNext()) {
-        relative = info.it.next();
-        real = getRegion().getMinimumPoint().add(relative);
-        info.world.getBlockAt(real).setBlockData(data.getDataAt(relative));
+  public @NonNull CompletableFuture<Void> revert(@NonNull GaiaRunnableInfo info, @NonNull GaiaData data) {
+    if (!isReverting()) return getRevertFuture();
+    final int[] batch = new int[BLOCKS_PER_STEP];
+    final boolean physics = ConfigManager.INSTANCE.isRevertPhysics();
+    final World world = ((WorldWrapper) info.world).get();
+    final CompletableFuture<?> loaded = world.isChunkLoaded(getX(), getZ()) ? CompletableFuture.completedFuture(null) : world.getChunkAtAsync(getX(), getZ());
+    loaded.thenRun(() -> Gaia.getPlugin().getScheduler().submit(new BudgetScheduler.Task() {
+      @Override
+      public boolean step() {
+        if (!isReverting()) return false;
+        int amount = 0;
+        while (amount < batch.length && info.it.hasNext()) {
+          batch[amount++] = info.it.nextInt();
+        }
+        if (amount > 0) info.world.setBlockBatch(getRegion(), data, batch, 0, amount, physics);
+        if (info.it.hasNext()) return true;
+        finishReverting();
+        return false;
       }
-      if (info.it.hasNext()) {
-        Bukkit.getScheduler().runTaskLater(Gaia.getPlugin(), () -> revert(info, data), 1);
-      } else {
-        cancelReverting();
+
+      @Override
+      public void onFailure(@NonNull RuntimeException e) {
+        failReverting(e);
       }
+    }, info.weight)).whenComplete((ignored, t) -> {
+      if (t != null) failReverting(t);
     });
+    return getRevertFuture();
+  }
+
+  /**
+   * Reverts every block of a chunk. If diff reverts are enabled, a snapshot of the chunk is compared against
+   * the stored data off the main thread and only blocks that differ are written.
+   * If the data can't be loaded, the chunk can't be loaded or any stage throws, the revert future completes exceptionally.
+   * @param chunk the chunk to revert
+   * @param world the world the chunk is in
+   * @param info the info of the revert operation that changed and skipped blocks are counted in
+   * @return the revert future of the chunk
+   */
+  public static @NonNull CompletableFuture<Void> revertChunk(@NonNull GaiaChunk chunk, @NonNull GaiaWorld world, @NonNull GaiaConsumerInfo info) {
+    if (!ConfigManager.INSTANCE.isDiffRevert()) {
+      info.changedBlocks.add(chunk.getRegion().getVolume());
+      return revertChunk(chunk, world, chunk.cursor(), info);
+    }
+    if (chunk.isReverting()) return chunk.getRevertFuture();
+    final CompletableFuture<Void> future = chunk.startReverting();
+    CompletableFuture.supplyAsync(() -> requireData(chunk), ASYNC)
+      .thenComposeAsync(gd -> holdChunk(chunk, world, info)
+        .thenApply(c -> c.getChunkSnapshot(false, false, false))
+        .thenApplyAsync(snapshot -> chunk.isReverting() ? diff(chunk, gd, snapshot) : null, ASYNC)
+        .thenAcceptAsync(changes -> { // Back on the main thread as reverting checks and loads the chunk
+          if (changes == null || !chunk.isReverting()) return;
+          info.changedBlocks.add(changes.length);
+          info.skippedBlocks.add(gd.getVolume() - changes.length);
+          if (changes.length == 0) {
+            chunk.finishReverting();
+          } else {
+            chunk.revert(new GaiaRunnableInfo(Arrays.stream(changes).iterator(), world, info.getWeight()), gd);
+          }
+        }, MAIN), MAIN)
+      .whenComplete((ignored, t) -> {
+        if (t != null) chunk.failReverting(t);
+      });
+    return future;
+  }
+
+  /**
+   * Compares a snapshot of a chunk against stored data, one section at a time.
+   * Sections that are stored as air are skipped entirely if the snapshot sections they cover are empty and
+   * other uniform sections are compared against a single block state. Data saved with aligned sections
+   * covers exactly one snapshot section per stored section.
+   * @param chunk the chunk the data belongs to
+   * @param data the stored data
+   * @param snapshot the snapshot of the chunk
+   * @return the indices of all blocks that differ from the stored data, in ascending order
+   */
+  private static int @NonNull [] diff(@NonNull GaiaChunk chunk, @NonNull GaiaData data, @NonNull ChunkSnapshot snapshot) {
+    final BlockData[] palette = new BlockData[data.getPalette().size()];
+    for (int i = 0; i < palette.length; i++) {
+      palette[i] = ((BlockDataWrapper) data.getPaletteEntry(i)).get();
+    }
+    final GaiaVector min = chunk.getRegion().getMinimumPoint();
+    final GaiaVector size = data.getVector();
+    final int offsetX = min.getX() & 15;
+    final int offsetY = min.getY();
+    final int offsetZ = min.getZ() & 15;
+    int[] changes = new int[64];
+    int count = 0;
+    for (int section = 0; section < data.getSectionCount(); section++) {
+      final int minY = data.getSectionLayer(section);
+      final int maxY = data.getSectionLayer(section + 1);
+      final int id = data.getUniformPaletteId(section);
+      if (id >= 0 && palette[id].getMaterial() == Material.AIR && isEmpty(snapshot, offsetY + minY, offsetY + maxY - 1)) {
+        continue;
+      }
+      final BlockData uniform = id >= 0 ? palette[id] : null;
+      int index = data.getSectionStart(section);
+      for (int y = minY; y < maxY; y++) {
+        for (int z = 0; z < size.getZ(); z++) {
+          for (int x = 0; x < size.getX(); x++, index++) {
+            BlockData expected = uniform == null ? palette[data.getPaletteId(index)] : uniform;
+            if (!expected.equals(snapshot.getBlockData(offsetX + x, offsetY + y, offsetZ + z))) {
+              if (count == changes.length) changes = Arrays.copyOf(changes, count * 2);
+              changes[count++] = index;
+            }
+          }
+        }
+      }
+    }
+    return Arrays.copyOf(changes, count);
+  }
+
+  private static boolean isEmpty(ChunkSnapshot snapshot, int minY, int maxY) {
+    for (int sectionY = minY >> 4; sectionY <= maxY >> 4; sectionY++) {
+      if (!snapshot.isSectionEmpty(sectionY)) return false;
+    }
+    return true;
+  }
+
+  /**
+   * Reverts the blocks of a chunk at the specified positions.
+   * @param chunk the chunk to revert
+   * @param world the world the chunk is in
+   * @param it the indices of the blocks to revert, in the order of {@link GaiaData}
+   * @param info the info of the revert operation that chunk loads are counted in
+   * @return the revert future of the chunk, completed exceptionally if any stage of the revert fails
+   */
+  public static @NonNull CompletableFuture<Void> revertChunk(@NonNull GaiaChunk chunk, @NonNull GaiaWorld world, PrimitiveIterator.@NonNull OfInt it, @NonNull GaiaConsumerInfo info) {
+    if (chunk.isReverting()) return chunk.getRevertFuture();
+    final CompletableFuture<Void> future = chunk.startReverting();
+    CompletableFuture.supplyAsync(() -> requireData(chunk), ASYNC)
+      .thenComposeAsync(gd -> holdChunk(chunk, world, info).thenAccept(c -> chunk.revert(new GaiaRunnableInfo(it, world, info.getWeight()), gd)), MAIN)
+      .whenComplete((ignored, t) -> {
+        if (t != null) chunk.failReverting(t);
+      });
+    return future;
+  }
+
+  private static @NonNull GaiaData requireData(@NonNull GaiaChunk chunk) {
+    final GaiaData gd = GaiaIO.getInstance().loadData(chunk);
+    if (gd == null) throw new IllegalStateException("Could not load data for chunk " + chunk.getId());
+    return gd;
   }
 
-  public static void revertChunk(@NonNull GaiaChunk chunk, @NonNull GaiaWorld world) {
-    if (chunk.isReverting()) return;
-    chunk.startReverting();
-    Bukkit.getScheduler().runTaskAsynchronously(Gaia.getPlugin(), () -> {
-      final Iterator<GaiaVector> it = chunk.iterator();
-      final GaiaData gd = GaiaIO.getInstance().loadData(chunk);
-      if (gd != null)
-        chunk.revert(new GaiaRunnableInfo(it, world, ConfigManager.INSTANCE.getConcurrentTransactions()), gd);
+  /**
+   * Loads a chunk and keeps it loaded with a plugin chunk ticket until its revert completes or is cancelled.
+   * Must be called from the main thread so the returned future also completes on it.
+   * @param chunk the chunk that is being reverted
+   * @param world the world the chunk is in
+   * @param info the info of the revert operation that chunk loads are counted in
+   * @return a future with the loaded chunk, completed on the main thread
+   */
+  private static @NonNull CompletableFuture<Chunk> holdChunk(@NonNull GaiaChunk chunk, @NonNull GaiaWorld world, @NonNull GaiaConsumerInfo info) {
+    final World w = ((WorldWrapper) world).get();
+    final int x = chunk.getX();
+    final int z = chunk.getZ();
+    if (w.isChunkLoaded(x, z)) {
+      info.cachedChunks.increment();
+    } else {
+      info.loadedChunks.increment();
+    }
+    return w.getChunkAtAsync(x, z).thenApply(c -> {
+      Gaia.getPlugin().getChunkTickets().acquire(w, x, z);
+      chunk.getRevertFuture().whenComplete((ignored, t) ->
+        Bukkit.getScheduler().runTask(Gaia.getPlugin(), () -> Gaia.getPlugin().getChunkTickets().release(w, x, z))
+      );
+      return c;
     });
   }
 
-  public static void analyzeChunk(@NonNull GaiaChunk chunk, @NonNull GaiaWorld world) {
-    if (chunk.isAnalyzed()) return;
-    final Iterator<GaiaVector> it = chunk.iterator();
+  public static @NonNull CompletableFuture<Void> analyzeChunk(@NonNull GaiaChunk chunk, @NonNull GaiaWorld world) {
+    if (chunk.isAnalyzed()) return CompletableFuture.completedFuture(null);
     final GaiaData gd = new GaiaData(chunk.getRegion().getVector());
-    chunk.analyze(new GaiaRunnableInfo(it, world, ConfigManager.INSTANCE.getConcurrentTransactions()), gd);
+    gd.alignSections(chunk.getRegion().getMinimumPoint().getY());
+    return chunk.analyze(new GaiaRunnableInfo(chunk.cursor(), world), gd);
   }
 }
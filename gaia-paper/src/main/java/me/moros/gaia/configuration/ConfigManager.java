@@ -19,8 +19,20 @@
 
 package me.moros.gaia.configuration;
 
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
 import me.moros.gaia.Gaia;
+import me.moros.gaia.io.ChecksumAlgorithm;
+import me.moros.gaia.io.CompressionCodec;
+import me.moros.gaia.io.SnapshotCache;
+import me.moros.gaia.io.StorageOptions;
+import me.moros.gaia.util.AimdBudgetController;
+import me.moros.gaia.util.BudgetController;
+import org.bukkit.configuration.ConfigurationSection;
 import org.bukkit.configuration.file.FileConfiguration;
+import org.checkerframework.checker.nullness.qual.NonNull;
 
 public enum ConfigManager {
   INSTANCE;
@@ -31,14 +43,155 @@ public enum ConfigManager {
     config = Gaia.getPlugin().getConfig();
     config.addDefault("Debug", false);
     config.addDefault("Analysis.Timeout", 30_000);
-    config.addDefault("ConcurrentTransactions", 4096);
+    config.addDefault("Scheduler.TickBudget", 10.0);
+    config.addDefault("Scheduler.MinStepsPerTick", 16);
+    config.addDefault("Scheduler.Adaptive.Enabled", true);
+    config.addDefault("Scheduler.Adaptive.TargetTickTime", 45.0);
+    config.addDefault("Scheduler.Adaptive.MinBudget", 1.0);
+    config.addDefault("Scheduler.Adaptive.MaxBudget", 25.0);
+    config.addDefault("Scheduler.Adaptive.Increase", 0.5);
+    config.addDefault("Scheduler.Adaptive.Decrease", 0.5);
+    config.addDefault("Storage.SingleFile", false);
+    config.addDefault("Storage.LoadThreads", 0);
+    config.addDefault("Storage.FullVerify", false);
+    config.addDefault("Storage.Checksum", ChecksumAlgorithm.CRC32C.name());
+    config.addDefault("Storage.Compression.Codec", CompressionCodec.GZIP.name());
+    config.addDefault("Storage.Compression.Level", CompressionCodec.DEFAULT_LEVEL);
+    config.addDefault("Cache.Budget", 64);
+    config.addDefault("Cache.Mode", SnapshotCache.Mode.COMPRESSED.name());
+    config.addDefault("Revert.Diff", true);
+    config.addDefault("Revert.Physics", true);
+    config.addDefault("Revert.ConcurrentChunks", 8);
+    config.addDefault("Revert.ConcurrentArenas", 2);
+    config.addDefault("Revert.SmallJobBlocks", 32768);
+    config.addDefault("Tracking.Enabled", false);
+    config.addDefault("Tracking.MaxBlocks", 65536);
 
     config.options().copyDefaults(true);
     Gaia.getPlugin().saveConfig();
   }
 
-  public int getConcurrentTransactions() {
+  public boolean isDebug() {
     if (config == null) init();
-    return config.getInt("ConcurrentTransactions");
+    return config.getBoolean("Debug");
+  }
+
+  public @NonNull StorageOptions getStorageOptions() {
+    if (config == null) init();
+    String checksum = config.getString("Storage.Checksum");
+    ChecksumAlgorithm algorithm = ChecksumAlgorithm.fromName(checksum);
+    if (algorithm == null) {
+      Gaia.getPlugin().getLog().warning("Unknown checksum algorithm " + checksum + ", using " + ChecksumAlgorithm.CRC32C);
+      algorithm = ChecksumAlgorithm.CRC32C;
+    }
+    CompressionCodec codec = getCodec(config.getString("Storage.Compression.Codec"), CompressionCodec.GZIP);
+    int level = config.getInt("Storage.Compression.Level");
+    if (!CompressionCodec.isValidLevel(level)) {
+      Gaia.getPlugin().getLog().warning("Invalid compression level " + level + ", using the default level");
+      level = CompressionCodec.DEFAULT_LEVEL;
+    }
+    Map<String, CompressionCodec> arenaCodecs = new HashMap<>();
+    ConfigurationSection codecSection = config.getConfigurationSection("Storage.Compression.Arenas");
+    if (codecSection != null) {
+      for (String arena : codecSection.getKeys(false)) {
+        arenaCodecs.put(arena.toLowerCase(Locale.ROOT), getCodec(codecSection.getString(arena), codec));
+      }
+    }
+    long cacheBudget = config.getLong("Cache.Budget") * 1024 * 1024;
+    SnapshotCache.Mode cacheMode = getCacheMode(config.getString("Cache.Mode"), SnapshotCache.Mode.COMPRESSED);
+    Map<String, SnapshotCache.Mode> arenaCacheModes = new HashMap<>();
+    ConfigurationSection section = config.getConfigurationSection("Cache.Arenas");
+    if (section != null) {
+      for (String arena : section.getKeys(false)) {
+        arenaCacheModes.put(arena.toLowerCase(Locale.ROOT), getCacheMode(section.getString(arena), cacheMode));
+      }
+    }
+    return new StorageOptions(config.getBoolean("Storage.SingleFile"), config.getInt("Storage.LoadThreads"),
+      config.getBoolean("Storage.FullVerify"), algorithm, codec, level, arenaCodecs, cacheBudget, cacheMode, arenaCacheModes);
+  }
+
+  private @NonNull CompressionCodec getCodec(String value, @NonNull CompressionCodec def) {
+    CompressionCodec codec = value == null ? null : CompressionCodec.fromName(value);
+    if (codec == null) {
+      Gaia.getPlugin().getLog().warning("Unknown compression codec " + value + ", using " + def);
+      return def;
+    }
+    return codec;
+  }
+
+  private SnapshotCache.@NonNull Mode getCacheMode(String value, SnapshotCache.@NonNull Mode def) {
+    SnapshotCache.Mode mode = SnapshotCache.Mode.fromName(value);
+    if (mode == null) {
+      Gaia.getPlugin().getLog().warning("Unknown cache mode " + value + ", using " + def);
+      return def;
+    }
+    return mode;
+  }
+
+  public boolean isDiffRevert() {
+    if (config == null) init();
+    return config.getBoolean("Revert.Diff");
+  }
+
+  public boolean isRevertPhysics() {
+    if (config == null) init();
+    return config.getBoolean("Revert.Physics");
+  }
+
+  public int getConcurrentChunks() {
+    if (config == null) init();
+    return Math.max(1, config.getInt("Revert.ConcurrentChunks"));
+  }
+
+  public int getConcurrentArenas() {
+    if (config == null) init();
+    return Math.max(1, config.getInt("Revert.ConcurrentArenas"));
+  }
+
+  /**
+   * @return the amount of blocks up to which a revert is treated as a small job and moved ahead in the queue
+   */
+  public long getSmallJobBlocks() {
+    if (config == null) init();
+    return Math.max(0, config.getLong("Revert.SmallJobBlocks"));
+  }
+
+  public boolean isTrackingEnabled() {
+    if (config == null) init();
+    return config.getBoolean("Tracking.Enabled");
+  }
+
+  public int getTrackingCapacity() {
+    if (config == null) init();
+    return Math.max(1, config.getInt("Tracking.MaxBlocks"));
+  }
+
+  /**
+   * Creates the controller for the time spent on reverting and analyzing per tick.
+   * If adaptive scheduling is enabled, the configured tick budget is used as the starting point.
+   * @return the budget controller
+   */
+  public @NonNull BudgetController createBudgetController() {
+    if (config == null) init();
+    long budget = toNanos(config.getDouble("Scheduler.TickBudget"));
+    if (!config.getBoolean("Scheduler.Adaptive.Enabled")) return BudgetController.fixed(budget);
+    long min = toNanos(config.getDouble("Scheduler.Adaptive.MinBudget"));
+    long max = Math.max(min, toNanos(config.getDouble("Scheduler.Adaptive.MaxBudget")));
+    double decrease = config.getDouble("Scheduler.Adaptive.Decrease");
+    if (decrease <= 0 || decrease >= 1) decrease = 0.5;
+    return new AimdBudgetController(min, max, budget, Math.max(1, config.getDouble("Scheduler.Adaptive.TargetTickTime")),
+      toNanos(config.getDouble("Scheduler.Adaptive.Increase")), decrease);
+  }
+
+  /**
+   * @return the amount of steps to process per tick even when the budget is exhausted
+   */
+  public int getMinStepsPerTick() {
+    if (config == null) init();
+    return Math.max(0, config.getInt("Scheduler.MinStepsPerTick"));
+  }
+
+  private static long toNanos(double millis) {
+    return Math.max(1, (long) (millis * 1_000_000));
   }
 }
@@ -0,0 +1,43 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.listeners;
+
+import com.destroystokyo.paper.event.server.ServerTickEndEvent;
+import me.moros.gaia.util.BudgetScheduler;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Passes server tick durations to the scheduler so it can adapt its budget to server load.
+ */
+public class TickListener implements Listener {
+  private final BudgetScheduler scheduler;
+
+  public TickListener(@NonNull BudgetScheduler scheduler) {
+    this.scheduler = scheduler;
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onTickEnd(ServerTickEndEvent event) {
+    scheduler.onTickEnd(event.getTickDuration());
+  }
+}
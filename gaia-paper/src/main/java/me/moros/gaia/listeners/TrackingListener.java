@@ -0,0 +1,263 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.listeners;
+
+import java.util.Collection;
+
+import com.destroystokyo.paper.event.block.BlockDestroyEvent;
+import com.destroystokyo.paper.event.block.TNTPrimeEvent;
+import me.moros.gaia.GaiaArenaManager;
+import org.bukkit.Location;
+import org.bukkit.block.Block;
+import org.bukkit.block.BlockFace;
+import org.bukkit.block.BlockState;
+import org.bukkit.block.data.Directional;
+import org.bukkit.event.EventHandler;
+import org.bukkit.event.EventPriority;
+import org.bukkit.event.Listener;
+import org.bukkit.event.block.BlockBreakEvent;
+import org.bukkit.event.block.BlockBurnEvent;
+import org.bukkit.event.block.BlockDispenseEvent;
+import org.bukkit.event.block.BlockExplodeEvent;
+import org.bukkit.event.block.BlockFadeEvent;
+import org.bukkit.event.block.BlockFertilizeEvent;
+import org.bukkit.event.block.BlockFormEvent;
+import org.bukkit.event.block.BlockFromToEvent;
+import org.bukkit.event.block.BlockGrowEvent;
+import org.bukkit.event.block.BlockIgniteEvent;
+import org.bukkit.event.block.BlockMultiPlaceEvent;
+import org.bukkit.event.block.BlockPistonExtendEvent;
+import org.bukkit.event.block.BlockPistonRetractEvent;
+import org.bukkit.event.block.BlockPlaceEvent;
+import org.bukkit.event.block.BlockRedstoneEvent;
+import org.bukkit.event.block.LeavesDecayEvent;
+import org.bukkit.event.block.SpongeAbsorbEvent;
+import org.bukkit.event.entity.EntityChangeBlockEvent;
+import org.bukkit.event.entity.EntityExplodeEvent;
+import org.bukkit.event.entity.EntityInteractEvent;
+import org.bukkit.event.player.PlayerBucketEmptyEvent;
+import org.bukkit.event.player.PlayerBucketFillEvent;
+import org.bukkit.event.player.PlayerInteractEvent;
+import org.bukkit.event.world.StructureGrowEvent;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Records every block change inside an arena so reverts can be limited to changed blocks.
+ * Changes are recorded after every other listener had the chance to cancel the event.
+ * Blocks next to a placed or removed block are marked too, as their shape may be updated with it.
+ * Changes that don't fire an event are not recorded, for example redstone components powered further away
+ * than a direct neighbour, observers or shape updates that cascade beyond the neighbours.
+ * Arenas where these matter should not use tracking so they are reverted in full or by diff instead.
+ */
+public class TrackingListener implements Listener {
+  private static final BlockFace[] NEIGHBOURS = {
+    BlockFace.NORTH, BlockFace.EAST, BlockFace.SOUTH, BlockFace.WEST, BlockFace.UP, BlockFace.DOWN
+  };
+
+  private final GaiaArenaManager manager;
+
+  public TrackingListener(@NonNull GaiaArenaManager manager) {
+    this.manager = manager;
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockBreak(BlockBreakEvent event) {
+    markWithNeighbours(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockPlace(BlockPlaceEvent event) {
+    markWithNeighbours(event.getBlockPlaced());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockMultiPlace(BlockMultiPlaceEvent event) {
+    for (BlockState state : event.getReplacedBlockStates()) {
+      markWithNeighbours(state.getBlock());
+    }
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockDestroy(BlockDestroyEvent event) {
+    markWithNeighbours(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockBurn(BlockBurnEvent event) {
+    markWithNeighbours(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockIgnite(BlockIgniteEvent event) {
+    mark(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockFade(BlockFadeEvent event) {
+    markWithNeighbours(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockForm(BlockFormEvent event) { // Also covers BlockSpreadEvent
+    mark(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockGrow(BlockGrowEvent event) {
+    mark(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onLeavesDecay(LeavesDecayEvent event) {
+    mark(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockFromTo(BlockFromToEvent event) {
+    mark(event.getBlock());
+    mark(event.getToBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPistonExtend(BlockPistonExtendEvent event) {
+    markPiston(event.getBlock(), event.getBlocks(), event.getDirection());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPistonRetract(BlockPistonRetractEvent event) {
+    markPiston(event.getBlock(), event.getBlocks(), event.getDirection());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onEntityExplode(EntityExplodeEvent event) {
+    markBlocksWithNeighbours(event.blockList());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockExplode(BlockExplodeEvent event) {
+    markWithNeighbours(event.getBlock());
+    markBlocksWithNeighbours(event.blockList());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onTNTPrime(TNTPrimeEvent event) {
+    mark(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onEntityChangeBlock(EntityChangeBlockEvent event) {
+    markWithNeighbours(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBucketEmpty(PlayerBucketEmptyEvent event) {
+    markWithNeighbours(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBucketFill(PlayerBucketFillEvent event) {
+    markWithNeighbours(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onSpongeAbsorb(SpongeAbsorbEvent event) {
+    mark(event.getBlock());
+    markStates(event.getBlocks());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockFertilize(BlockFertilizeEvent event) {
+    mark(event.getBlock());
+    markStates(event.getBlocks());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onStructureGrow(StructureGrowEvent event) {
+    mark(event.getLocation());
+    markStates(event.getBlocks());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onPlayerInteract(PlayerInteractEvent event) {
+    // Doors, trapdoors, gates, levers, buttons, note blocks, cake, composters and trampled crops change on interaction
+    final Block block = event.getClickedBlock();
+    if (block != null) markWithNeighbours(block);
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onEntityInteract(EntityInteractEvent event) { // Pressure plates, tripwires and farmland
+    markWithNeighbours(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR)
+  public void onBlockRedstone(BlockRedstoneEvent event) {
+    markWithNeighbours(event.getBlock());
+  }
+
+  @EventHandler(priority = EventPriority.MONITOR, ignoreCancelled = true)
+  public void onBlockDispense(BlockDispenseEvent event) {
+    final Block block = event.getBlock();
+    mark(block);
+    if (block.getBlockData() instanceof Directional) {
+      markWithNeighbours(block.getRelative(((Directional) block.getBlockData()).getFacing()));
+    }
+  }
+
+  private void markPiston(Block piston, Collection<Block> blocks, BlockFace direction) {
+    // The piston itself changes state and its head moves in or out of the adjacent blocks
+    mark(piston);
+    mark(piston.getRelative(direction));
+    mark(piston.getRelative(direction.getOppositeFace()));
+    for (Block block : blocks) {
+      mark(block);
+      mark(block.getRelative(direction));
+    }
+  }
+
+  private void markBlocksWithNeighbours(Collection<Block> blocks) {
+    for (Block block : blocks) {
+      markWithNeighbours(block);
+    }
+  }
+
+  private void markStates(Collection<? extends BlockState> states) {
+    for (BlockState state : states) {
+      manager.markChanged(state.getWorld().getUID(), state.getX(), state.getY(), state.getZ());
+    }
+  }
+
+  private void mark(Location location) {
+    manager.markChanged(location.getWorld().getUID(), location.getBlockX(), location.getBlockY(), location.getBlockZ());
+  }
+
+  /**
+   * Marks a block and its direct neighbours, whose shape or state may be updated when the block changes.
+   */
+  private void markWithNeighbours(Block block) {
+    mark(block);
+    for (BlockFace face : NEIGHBOURS) {
+      mark(block.getRelative(face));
+    }
+  }
+
+  private void mark(Block block) {
+    manager.markChanged(block.getWorld().getUID(), block.getX(), block.getY(), block.getZ());
+  }
+}
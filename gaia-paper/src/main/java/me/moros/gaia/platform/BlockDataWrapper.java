@@ -37,4 +37,16 @@ public class BlockDataWrapper implements GaiaBlockData {
   public @NonNull String getAsString() {
     return blockData.getAsString();
   }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) return true;
+    if (!(o instanceof BlockDataWrapper)) return false;
+    return blockData.equals(((BlockDataWrapper) o).blockData);
+  }
+
+  @Override
+  public int hashCode() {
+    return blockData.hashCode();
+  }
 }
@@ -0,0 +1,69 @@
+/*
+ *   Copyright 2020 Moros <https://github.com/PrimordialMoros>
+ *
+ * 	  This file is part of Gaia.
+ *
+ *    Gaia is free software: you can redistribute it and/or modify
+ *    it under the terms of the GNU General Public License as published by
+ *    the Free Software Foundation, either version 3 of the License, or
+ *    (at your option) any later version.
+ *
+ *    Gaia is distributed in the hope that it will be useful,
+ *    but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *    MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *    GNU General Public License for more details.
+ *
+ *    You should have received a copy of the GNU General Public License
+ *    along with Gaia.  If not, see <https://www.gnu.org/licenses/>.
+ */
+
+package me.moros.gaia.platform;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import me.moros.gaia.api.Coordinates;
+import me.moros.gaia.util.LongObjectMap;
+import org.bukkit.World;
+import org.bukkit.plugin.Plugin;
+import org.checkerframework.checker.nullness.qual.NonNull;
+
+/**
+ * Keeps chunks loaded through plugin chunk tickets. Bukkit only keeps a single ticket per plugin and chunk,
+ * so holds are reference counted and the ticket is removed once the last hold is released.
+ * Must only be used from the main thread.
+ */
+public final class ChunkTickets {
+  private final Plugin plugin;
+  private final Map<UUID, LongObjectMap<int[]>> holds = new HashMap<>();
+
+  public ChunkTickets(@NonNull Plugin plugin) {
+    this.plugin = plugin;
+  }
+
+  public void acquire(@NonNull World world, int x, int z) {
+    final LongObjectMap<int[]> worldHolds = holds.computeIfAbsent(world.getUID(), k -> new LongObjectMap<>());
+    final int[] count = worldHolds.computeIfAbsent(Coordinates.chunk(x, z), k -> new int[1]); // Counted in place
+    if (++count[0] == 1) world.addPluginChunkTicket(x, z, plugin);
+  }
+
+  public void release(@NonNull World world, int x, int z) {
+    final LongObjectMap<int[]> worldHolds = holds.get(world.getUID());
+    if (worldHolds == null) return;
+    final long key = Coordinates.chunk(x, z);
+    final int[] count = worldHolds.get(key);
+    if (count == null) return;
+    if (--count[0] > 0) return;
+    worldHolds.remove(key);
+    if (worldHolds.isEmpty()) holds.remove(world.getUID());
+    world.removePluginChunkTicket(x, z, plugin);
+  }
+
+  /**
+   * @return the amount of chunks currently held
+   */
+  public int size() {
+    return holds.values().stream().mapToInt(LongObjectMap::size).sum();
+  }
+}
@@ -19,13 +19,26 @@
 
 package me.moros.gaia.platform;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
 
+import me.moros.gaia.Gaia;
+import me.moros.gaia.api.GaiaData;
+import me.moros.gaia.api.GaiaRegion;
 import me.moros.gaia.api.GaiaVector;
+import org.bukkit.Bukkit;
+import org.bukkit.Chunk;
+import org.bukkit.ChunkSnapshot;
 import org.bukkit.World;
+import org.bukkit.block.data.BlockData;
 import org.checkerframework.checker.nullness.qual.NonNull;
 
 public class WorldWrapper implements GaiaWorld {
+  private static final Executor ASYNC = r -> Bukkit.getScheduler().runTaskAsynchronously(Gaia.getPlugin(), r);
+
   private final World world;
 
   public WorldWrapper(@NonNull World world) {
@@ -41,6 +54,67 @@ public class WorldWrapper implements GaiaWorld {
     return new BlockWrapper(world.getBlockAt(v.getX(), v.getY(), v.getZ()));
   }
 
+  @Override
+  public @NonNull CompletableFuture<@NonNull GaiaData> readBlocks(@NonNull GaiaRegion region, @NonNull GaiaData data) {
+    final GaiaVector min = region.getMinimumPoint();
+    final GaiaVector max = region.getMaximumPoint();
+    final int minChunkX = min.getX() >> 4;
+    final int minChunkZ = min.getZ() >> 4;
+    final int chunksX = (max.getX() >> 4) - minChunkX + 1;
+    final int chunksZ = (max.getZ() >> 4) - minChunkZ + 1;
+    final ChunkSnapshot[] snapshots = new ChunkSnapshot[chunksX * chunksZ];
+    final CompletableFuture<?>[] futures = new CompletableFuture[snapshots.length];
+    for (int i = 0; i < snapshots.length; i++) {
+      final int index = i;
+      // Paper completes chunk futures on the main thread so the snapshot is safe to take there
+      futures[i] = world.getChunkAtAsync(minChunkX + i % chunksX, minChunkZ + i / chunksX)
+        .thenAccept(c -> snapshots[index] = c.getChunkSnapshot(false, false, false));
+    }
+    return CompletableFuture.allOf(futures).thenApplyAsync(ignored -> {
+      final int width = data.getVector().getX();
+      final int height = data.getVector().getY();
+      final int length = data.getVector().getZ();
+      final Map<BlockData, Integer> ids = new HashMap<>();
+      int index = 0;
+      for (int y = 0; y < height; y++) {
+        for (int z = 0; z < length; z++) {
+          int realZ = min.getZ() + z;
+          for (int x = 0; x < width; x++) {
+            int realX = min.getX() + x;
+            ChunkSnapshot snapshot = snapshots[((realZ >> 4) - minChunkZ) * chunksX + (realX >> 4) - minChunkX];
+            BlockData blockData = snapshot.getBlockData(realX & 15, min.getY() + y, realZ & 15);
+            Integer id = ids.get(blockData);
+            if (id == null) { // Palette entries are shared through the block data cache
+              id = data.getOrCreatePaletteId(Gaia.getPlugin().getBlockDataCache().get(blockData.getAsString(), k -> new BlockDataWrapper(blockData)));
+              ids.put(blockData, id);
+            }
+            data.setPaletteId(index++, id);
+          }
+        }
+      }
+      return data;
+    }, ASYNC);
+  }
+
+  @Override
+  public void setBlockBatch(@NonNull GaiaRegion region, @NonNull GaiaData data, int @NonNull [] indices, int from, int to, boolean physics) {
+    final GaiaVector min = region.getMinimumPoint();
+    final int width = data.getVector().getX();
+    final int length = data.getVector().getZ();
+    Chunk chunk = null;
+    for (int i = from; i < to; i++) {
+      int index = indices[i];
+      int column = index / width;
+      int x = min.getX() + index - column * width;
+      int y = min.getY() + column / length;
+      int z = min.getZ() + column % length;
+      // Reuse the chunk while consecutive blocks share it instead of looking it up for every block
+      if (chunk == null || chunk.getX() != x >> 4 || chunk.getZ() != z >> 4) chunk = world.getChunkAt(x >> 4, z >> 4);
+      BlockDataWrapper blockData = (BlockDataWrapper) data.getPaletteEntry(data.getPaletteId(index));
+      chunk.getBlock(x & 15, y, z & 15).setBlockData(blockData.get(), physics);
+    }
+  }
+
   @Override
   public @NonNull String getName() {
     return world.getName();